@@ -0,0 +1,26 @@
+/**
+ * Self-tuning max engine; starts as a binary heap and migrates as the workload is profiled.
+ */
+public class AdaptivePriorityEngineTarget extends PatientHeapTarget {
+    private AdaptivePriorityEngine engine;
+
+    @Override
+    public void clear() {
+        engine = AdaptivePriorityEngine.maxHeap(INITIAL_CAPACITY);
+    }
+
+    @Override
+    protected void insert(Patient patient) {
+        engine.insert(patient);
+    }
+
+    @Override
+    public Object extract() {
+        return engine.extract();
+    }
+
+    @Override
+    public int size() {
+        return engine.getSize();
+    }
+}
@@ -0,0 +1,24 @@
+/**
+ * Emergency-order triage queue with two sub-queues per core and a one-level severity gap.
+ */
+public class ConcurrentTriageQueueTarget extends PatientConcurrentTarget {
+    private static final int MAX_SEVERITY_GAP = 1;
+
+    private final ConcurrentTriageQueue queue =
+            ConcurrentTriageQueue.forCores(PatientKeyedHeap.Order.MAX, MAX_SEVERITY_GAP);
+
+    @Override
+    public void insert(int index) {
+        queue.insert(patients[index]);
+    }
+
+    @Override
+    public Object poll() {
+        return queue.poll();
+    }
+
+    @Override
+    public int size() {
+        return queue.getSize();
+    }
+}
@@ -0,0 +1,40 @@
+import java.io.IOException;
+import java.nio.file.Path;
+
+import heapbench.DurableQueueTarget;
+
+public class DurablePatientQueueTarget implements DurableQueueTarget {
+    private DurablePatientQueue queue;
+    private int next;
+
+    @Override
+    public void open(Path directory, String durability, int snapshotEvery) throws IOException {
+        queue = DurablePatientQueue.open(directory, PatientKeyedHeap.Order.MAX,
+                WriteAheadLog.Durability.valueOf(durability), snapshotEvery);
+    }
+
+    @Override
+    public void insert(int severity) throws IOException {
+        queue.insert(new Patient("Patient " + next++, severity, 0));
+    }
+
+    @Override
+    public Object extract() throws IOException {
+        return queue.extract();
+    }
+
+    @Override
+    public int size() {
+        return queue.getSize();
+    }
+
+    @Override
+    public void snapshot() throws IOException {
+        queue.snapshot();
+    }
+
+    @Override
+    public void close() throws IOException {
+        queue.close();
+    }
+}
@@ -0,0 +1,23 @@
+public class OffHeapPatientHeapTarget extends PatientHeapTarget {
+    private OffHeapPatientHeap heap;
+
+    @Override
+    public void clear() {
+        heap = new OffHeapPatientHeap(PatientKeyedHeap.Order.MAX, INITIAL_CAPACITY);
+    }
+
+    @Override
+    protected void insert(Patient patient) {
+        heap.insert(patient);
+    }
+
+    @Override
+    public Object extract() {
+        return heap.extract();
+    }
+
+    @Override
+    public int size() {
+        return heap.getSize();
+    }
+}
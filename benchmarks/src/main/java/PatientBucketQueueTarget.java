@@ -0,0 +1,23 @@
+public class PatientBucketQueueTarget extends PatientHeapTarget {
+    private PatientBucketQueue queue;
+
+    @Override
+    public void clear() {
+        queue = new PatientBucketQueue();
+    }
+
+    @Override
+    protected void insert(Patient patient) {
+        queue.insert(patient);
+    }
+
+    @Override
+    public Object extract() {
+        return queue.extractMax();
+    }
+
+    @Override
+    public int size() {
+        return queue.getSize();
+    }
+}
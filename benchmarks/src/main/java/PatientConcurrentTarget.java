@@ -0,0 +1,16 @@
+import heapbench.ConcurrentQueueTarget;
+
+/**
+ * Shared patient pool for the default-package concurrent benchmark adapters.
+ */
+abstract class PatientConcurrentTarget implements ConcurrentQueueTarget {
+    protected Patient[] patients;
+
+    @Override
+    public void prepare(int[] severities) {
+        patients = new Patient[severities.length];
+        for (int i = 0; i < severities.length; i++) {
+            patients[i] = new Patient("Patient " + i, severities[i], 0);
+        }
+    }
+}
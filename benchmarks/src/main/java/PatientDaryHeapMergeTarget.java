@@ -0,0 +1,22 @@
+public class PatientDaryHeapMergeTarget extends WardMergeTarget<PatientDaryHeap> {
+
+    @Override
+    protected PatientDaryHeap newQueue() {
+        return PatientDaryHeap.maxHeap(4, INITIAL_CAPACITY);
+    }
+
+    @Override
+    protected void insert(PatientDaryHeap queue, Patient patient) {
+        queue.insert(patient);
+    }
+
+    @Override
+    protected Patient extract(PatientDaryHeap queue) {
+        return queue.extract();
+    }
+
+    @Override
+    protected int size(PatientDaryHeap queue) {
+        return queue.getSize();
+    }
+}
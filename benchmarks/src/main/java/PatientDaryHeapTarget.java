@@ -0,0 +1,28 @@
+/**
+ * 4-ary max heap; change ARITY to compare other fan-outs.
+ */
+public class PatientDaryHeapTarget extends PatientHeapTarget {
+    private static final int ARITY = 4;
+
+    private PatientDaryHeap heap;
+
+    @Override
+    public void clear() {
+        heap = PatientDaryHeap.maxHeap(ARITY, INITIAL_CAPACITY);
+    }
+
+    @Override
+    protected void insert(Patient patient) {
+        heap.insert(patient);
+    }
+
+    @Override
+    public Object extract() {
+        return heap.extract();
+    }
+
+    @Override
+    public int size() {
+        return heap.getSize();
+    }
+}
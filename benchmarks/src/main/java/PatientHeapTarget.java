@@ -0,0 +1,46 @@
+import java.util.Arrays;
+import java.util.List;
+
+import heapbench.HeapTarget;
+
+/**
+ * Shared patient pool for the default-package benchmark adapters.
+ */
+abstract class PatientHeapTarget implements HeapTarget {
+    // Starting capacity for every fresh engine, so growth is part of what gets measured
+    static final int INITIAL_CAPACITY = 16;
+
+    protected Patient[] patients;
+    protected List<Patient> patientList;
+
+    @Override
+    public void prepare(int[] severities) {
+        patients = new Patient[severities.length];
+        for (int i = 0; i < severities.length; i++) {
+            patients[i] = new Patient("Patient " + i, severities[i], 0);
+        }
+        // bulkLoad uses the first half, matching the queue size the other benchmarks hold
+        patientList = Arrays.asList(patients).subList(0, severities.length / 2);
+        clear();
+    }
+
+    @Override
+    public final void insert(int index) {
+        insert(patients[index]);
+    }
+
+    @Override
+    public final void reinsert(Object extracted) {
+        insert((Patient) extracted);
+    }
+
+    protected abstract void insert(Patient patient);
+
+    // Engines without a bulk path fall back to one insert per patient
+    @Override
+    public void bulkLoad() {
+        for (int i = 0; i < patientList.size(); i++) {
+            insert(i);
+        }
+    }
+}
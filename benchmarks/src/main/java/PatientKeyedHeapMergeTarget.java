@@ -0,0 +1,22 @@
+public class PatientKeyedHeapMergeTarget extends WardMergeTarget<PatientKeyedHeap> {
+
+    @Override
+    protected PatientKeyedHeap newQueue() {
+        return PatientKeyedHeap.maxHeap(INITIAL_CAPACITY);
+    }
+
+    @Override
+    protected void insert(PatientKeyedHeap queue, Patient patient) {
+        queue.insert(patient);
+    }
+
+    @Override
+    protected Patient extract(PatientKeyedHeap queue) {
+        return queue.extract();
+    }
+
+    @Override
+    protected int size(PatientKeyedHeap queue) {
+        return queue.getSize();
+    }
+}
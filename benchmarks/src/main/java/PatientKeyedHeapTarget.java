@@ -0,0 +1,23 @@
+public class PatientKeyedHeapTarget extends PatientHeapTarget {
+    private PatientKeyedHeap heap;
+
+    @Override
+    public void clear() {
+        heap = PatientKeyedHeap.maxHeap(INITIAL_CAPACITY);
+    }
+
+    @Override
+    protected void insert(Patient patient) {
+        heap.insert(patient);
+    }
+
+    @Override
+    public Object extract() {
+        return heap.extract();
+    }
+
+    @Override
+    public int size() {
+        return heap.getSize();
+    }
+}
@@ -0,0 +1,32 @@
+import java.util.Arrays;
+import java.util.Collections;
+
+public class PatientMaxHeapOriginalMergeTarget extends WardMergeTarget<PatientMaxHeapOriginal> {
+
+    @Override
+    protected PatientMaxHeapOriginal newQueue() {
+        return new PatientMaxHeapOriginal(INITIAL_CAPACITY);
+    }
+
+    @Override
+    protected void insert(PatientMaxHeapOriginal queue, Patient patient) {
+        queue.insert(patient);
+    }
+
+    @Override
+    protected Patient extract(PatientMaxHeapOriginal queue) {
+        return queue.extractMax();
+    }
+
+    @Override
+    protected int size(PatientMaxHeapOriginal queue) {
+        return queue.size;
+    }
+
+    // Appends the absorbed ward with insertAll, which re-heapifies only the ancestors of the new slots
+    @Override
+    protected void merge(PatientMaxHeapOriginal into, PatientMaxHeapOriginal from) {
+        into.insertAll(Arrays.asList(from.toArray()));
+        from.buildFrom(Collections.emptyList());
+    }
+}
@@ -0,0 +1,28 @@
+public class PatientMaxHeapOriginalTarget extends PatientHeapTarget {
+    private PatientMaxHeapOriginal heap;
+
+    @Override
+    public void clear() {
+        heap = new PatientMaxHeapOriginal(INITIAL_CAPACITY);
+    }
+
+    @Override
+    protected void insert(Patient patient) {
+        heap.insert(patient);
+    }
+
+    @Override
+    public Object extract() {
+        return heap.extractMax();
+    }
+
+    @Override
+    public void bulkLoad() {
+        heap.buildFrom(patientList);
+    }
+
+    @Override
+    public int size() {
+        return heap.size;
+    }
+}
@@ -0,0 +1,28 @@
+public class PatientMinHeapOriginalTarget extends PatientHeapTarget {
+    private PatientMinHeapOriginal heap;
+
+    @Override
+    public void clear() {
+        heap = new PatientMinHeapOriginal(INITIAL_CAPACITY);
+    }
+
+    @Override
+    protected void insert(Patient patient) {
+        heap.insert(patient);
+    }
+
+    @Override
+    public Object extract() {
+        return heap.extractMin();
+    }
+
+    @Override
+    public void bulkLoad() {
+        heap.buildFrom(patientList);
+    }
+
+    @Override
+    public int size() {
+        return heap.size;
+    }
+}
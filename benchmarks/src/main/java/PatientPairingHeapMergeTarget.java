@@ -0,0 +1,27 @@
+public class PatientPairingHeapMergeTarget extends WardMergeTarget<PatientPairingHeap> {
+
+    @Override
+    protected PatientPairingHeap newQueue() {
+        return PatientPairingHeap.maxHeap();
+    }
+
+    @Override
+    protected void insert(PatientPairingHeap queue, Patient patient) {
+        queue.insert(patient);
+    }
+
+    @Override
+    protected Patient extract(PatientPairingHeap queue) {
+        return queue.extract();
+    }
+
+    @Override
+    protected int size(PatientPairingHeap queue) {
+        return queue.getSize();
+    }
+
+    @Override
+    protected void merge(PatientPairingHeap into, PatientPairingHeap from) {
+        into.meld(from);
+    }
+}
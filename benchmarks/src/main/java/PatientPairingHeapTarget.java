@@ -0,0 +1,23 @@
+public class PatientPairingHeapTarget extends PatientHeapTarget {
+    private PatientPairingHeap heap;
+
+    @Override
+    public void clear() {
+        heap = PatientPairingHeap.maxHeap();
+    }
+
+    @Override
+    protected void insert(Patient patient) {
+        heap.insert(patient);
+    }
+
+    @Override
+    public Object extract() {
+        return heap.extract();
+    }
+
+    @Override
+    public int size() {
+        return heap.getSize();
+    }
+}
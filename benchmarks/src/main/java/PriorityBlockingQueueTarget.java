@@ -0,0 +1,25 @@
+import java.util.Comparator;
+import java.util.concurrent.PriorityBlockingQueue;
+
+/**
+ * java.util.concurrent baseline: one lock around one binary heap, highest severity first.
+ */
+public class PriorityBlockingQueueTarget extends PatientConcurrentTarget {
+    private final PriorityBlockingQueue<Patient> queue =
+            new PriorityBlockingQueue<>(16, Comparator.reverseOrder());
+
+    @Override
+    public void insert(int index) {
+        queue.add(patients[index]);
+    }
+
+    @Override
+    public Object poll() {
+        return queue.poll();
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+}
@@ -0,0 +1,33 @@
+import java.util.PriorityQueue;
+
+/**
+ * java.util.PriorityQueue baseline, ordered by Patient.compareTo (lowest severity first).
+ */
+public class PriorityQueueTarget extends PatientHeapTarget {
+    private PriorityQueue<Patient> queue;
+
+    @Override
+    public void clear() {
+        queue = new PriorityQueue<>(INITIAL_CAPACITY);
+    }
+
+    @Override
+    protected void insert(Patient patient) {
+        queue.add(patient);
+    }
+
+    @Override
+    public Object extract() {
+        return queue.poll();
+    }
+
+    @Override
+    public void bulkLoad() {
+        queue = new PriorityQueue<>(patientList);
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+}
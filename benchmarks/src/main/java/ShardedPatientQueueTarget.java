@@ -0,0 +1,29 @@
+import heapbench.ShardedQueueTarget;
+
+/**
+ * Emergency-order sharded queue; the layout comes from the benchmark parameters.
+ */
+public class ShardedPatientQueueTarget extends PatientConcurrentTarget implements ShardedQueueTarget {
+    private ShardedPatientQueue queue;
+
+    @Override
+    public void configure(int shards, String mode, String placement) {
+        queue = new ShardedPatientQueue(PatientKeyedHeap.Order.MAX, shards,
+                ShardedPatientQueue.Placement.valueOf(placement), ShardedPatientQueue.Mode.valueOf(mode));
+    }
+
+    @Override
+    public void insert(int index) {
+        queue.insert(patients[index]);
+    }
+
+    @Override
+    public Object poll() {
+        return queue.poll();
+    }
+
+    @Override
+    public int size() {
+        return queue.getSize();
+    }
+}
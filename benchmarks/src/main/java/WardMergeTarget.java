@@ -0,0 +1,74 @@
+import java.util.ArrayList;
+import java.util.List;
+
+import heapbench.MergeTarget;
+
+/**
+ * Shared ward setup for the merge benchmark adapters. Engines with a meld or a bulk
+ * insert override merge to use it; the rest merge the way the wards do today:
+ * extract every patient from one queue and insert it into the other.
+ */
+abstract class WardMergeTarget<Q> implements MergeTarget {
+    static final int INITIAL_CAPACITY = 16;
+
+    private Patient[][] wardPatients;
+    protected List<Q> wards;
+
+    protected abstract Q newQueue();
+
+    protected abstract void insert(Q queue, Patient patient);
+
+    protected abstract Patient extract(Q queue);
+
+    protected abstract int size(Q queue);
+
+    // Moves every patient of from into into
+    protected void merge(Q into, Q from) {
+        Patient patient;
+        while ((patient = extract(from)) != null) {
+            insert(into, patient);
+        }
+    }
+
+    @Override
+    public void prepare(int[] severities, int wards) {
+        wardPatients = new Patient[wards][];
+        for (int w = 0; w < wards; w++) {
+            wardPatients[w] = new Patient[(severities.length - w + wards - 1) / wards];
+        }
+        for (int i = 0; i < severities.length; i++) {
+            wardPatients[i % wards][i / wards] = new Patient("Patient " + i, severities[i], 0);
+        }
+        fill();
+    }
+
+    @Override
+    public void fill() {
+        wards = new ArrayList<>(wardPatients.length);
+        for (Patient[] patients : wardPatients) {
+            Q queue = newQueue();
+            for (Patient patient : patients) {
+                insert(queue, patient);
+            }
+            wards.add(queue);
+        }
+    }
+
+    @Override
+    public void mergeAll() {
+        Q first = wards.get(0);
+        for (int w = 1; w < wards.size(); w++) {
+            merge(first, wards.get(w));
+        }
+    }
+
+    @Override
+    public Object extract() {
+        return extract(wards.get(0));
+    }
+
+    @Override
+    public int size() {
+        return size(wards.get(0));
+    }
+}
@@ -0,0 +1,26 @@
+package heapbench;
+
+/**
+ * Bridge to a thread-safe priority queue engine; see HeapTarget for why adapters
+ * are loaded by name. Implementations are named {@code <engine>Target}.
+ */
+public interface ConcurrentQueueTarget {
+
+    // Creates one patient per severity; insert(i) later inserts patient i
+    void prepare(int[] severities);
+
+    // Safe to call from any number of threads
+    void insert(int index);
+
+    Object poll();
+
+    int size();
+
+    static ConcurrentQueueTarget forEngine(String engine) {
+        try {
+            return (ConcurrentQueueTarget) Class.forName(engine + "Target").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("No benchmark target for engine " + engine, e);
+        }
+    }
+}
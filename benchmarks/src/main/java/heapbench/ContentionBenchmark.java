@@ -0,0 +1,91 @@
+package heapbench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Contention benchmark for shared triage queues.
+ * mixed has every thread insert one patient and extract one (scale it with -t);
+ * the intake/clinicians group runs 4 inserting and 4 extracting threads at once.
+ * The queue is pre-filled to {@code size} so extractions rarely see it empty.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ContentionBenchmark {
+    private static final int POOL = 1 << 16;
+
+    @Param({"ConcurrentTriageQueue", "PriorityBlockingQueue"})
+    public String engine;
+
+    @Param({"10000"})
+    public int size;
+
+    @Param({"UNIFORM", "SKEWED_LOW"})
+    public Severities severities;
+
+    private ConcurrentQueueTarget target;
+
+    @Setup(Level.Iteration)
+    public void prepare() {
+        target = ConcurrentQueueTarget.forEngine(engine);
+        target.prepare(severities.generate(POOL, 42L));
+        for (int i = 0; i < size; i++) {
+            target.insert(i & (POOL - 1));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        @Setup(Level.Iteration)
+        public void start() {
+            next = (int) (Thread.currentThread().getId() * 7919) & (POOL - 1);
+        }
+
+        int next() {
+            next = (next + 1) & (POOL - 1);
+            return next;
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object mixed(Cursor cursor) {
+        target.insert(cursor.next());
+        return target.poll();
+    }
+
+    @Benchmark
+    @Group("desks")
+    @GroupThreads(4)
+    public void intake(Cursor cursor) {
+        target.insert(cursor.next());
+    }
+
+    @Benchmark
+    @Group("desks")
+    @GroupThreads(4)
+    public Object clinicians() {
+        return target.poll();
+    }
+}
@@ -0,0 +1,25 @@
+package heapbench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Extracts every patient from a queue of {@code size}; the score is drains per second.
+ * The queue is refilled outside the measured region before each invocation.
+ */
+public class DrainBenchmark extends HeapWorkload {
+
+    @Setup(Level.Invocation)
+    public void refill() {
+        fill();
+    }
+
+    @Benchmark
+    public void drain(Blackhole bh) {
+        for (int i = 0; i < size; i++) {
+            bh.consume(target.extract());
+        }
+    }
+}
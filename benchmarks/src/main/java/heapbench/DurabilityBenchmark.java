@@ -0,0 +1,84 @@
+package heapbench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-operation logging cost of the durable queue under each durability mode.
+ * Every invocation logs one insert and one extract. With a single thread, GROUP
+ * waits a full commit interval per operation; run with -t to watch it amortize
+ * one fsync over many writers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DurabilityBenchmark {
+
+    @Param({"DurablePatientQueue"})
+    public String engine;
+
+    @Param({"SYNC", "GROUP", "ASYNC"})
+    public String durability;
+
+    @Param({"10000"})
+    public int snapshotEvery;
+
+    private DurableQueueTarget target;
+    private Path directory;
+    private int[] severities;
+
+    @Setup(Level.Trial)
+    public void open() throws IOException {
+        directory = Files.createTempDirectory("durability-bench");
+        target = DurableQueueTarget.forEngine(engine);
+        target.open(directory, durability, snapshotEvery);
+        severities = Severities.UNIFORM.generate(1 << 12, 42L);
+        for (int i = 0; i < 1000; i++) {
+            target.insert(severities[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws IOException {
+        target.close();
+        deleteRecursively(directory);
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public Object insertAndExtract(Cursor cursor) throws IOException {
+        target.insert(severities[cursor.next++ & (severities.length - 1)]);
+        return target.extract();
+    }
+
+    static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package heapbench;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Bridge to a durable queue engine; see HeapTarget for why adapters are loaded by
+ * name. Implementations are named {@code <engine>Target}.
+ */
+public interface DurableQueueTarget {
+
+    // Opens (and recovers) the queue stored in directory
+    void open(Path directory, String durability, int snapshotEvery) throws IOException;
+
+    void insert(int severity) throws IOException;
+
+    Object extract() throws IOException;
+
+    int size();
+
+    // Writes a snapshot now and restarts the log
+    void snapshot() throws IOException;
+
+    void close() throws IOException;
+
+    static DurableQueueTarget forEngine(String engine) {
+        try {
+            return (DurableQueueTarget) Class.forName(engine + "Target").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("No benchmark target for engine " + engine, e);
+        }
+    }
+}
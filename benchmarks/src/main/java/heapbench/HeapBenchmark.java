@@ -0,0 +1,53 @@
+package heapbench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Baseline benchmarks shared by every heap engine.
+ * insertBatch and bulkLoad load a whole batch of {@code size} patients per invocation,
+ * so their scores are batches per second; mixed performs one insert and one extract
+ * per invocation against a queue held at {@code size} patients.
+ */
+public class HeapBenchmark extends HeapWorkload {
+
+    private Object[] extracted; // what mixed took out, put back size invocations later
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void steadyState() {
+        fill();
+        extracted = new Object[size];
+        next = 0;
+    }
+
+    @Benchmark
+    public void insertBatch(Blackhole bh) {
+        fill();
+        bh.consume(target.size());
+    }
+
+    // The first size invocations insert the unused second half of the pool; after that each
+    // one re-inserts the patient extracted size invocations earlier, which cannot still be queued
+    @Benchmark
+    public Object mixed() {
+        if (extracted[next] == null) {
+            target.insert(size + next);
+        } else {
+            target.reinsert(extracted[next]);
+        }
+        Object top = target.extract();
+        extracted[next] = top;
+        next = next + 1 == size ? 0 : next + 1;
+        return top;
+    }
+
+    @Benchmark
+    public void bulkLoad(Blackhole bh) {
+        target.clear();
+        target.bulkLoad();
+        bh.consume(target.size());
+    }
+}
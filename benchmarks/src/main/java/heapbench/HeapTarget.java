@@ -0,0 +1,37 @@
+package heapbench;
+
+/**
+ * Bridge between the JMH benchmarks and a priority queue engine.
+ * JMH refuses benchmark classes in the default package, while the heap classes live
+ * there and cannot be imported from a named package. Each engine therefore gets a
+ * small default-package adapter named {@code <engine>Target} implementing this
+ * interface, which the benchmarks load by name.
+ */
+public interface HeapTarget {
+
+    // Creates one patient per severity; insert(i) later inserts patient i
+    void prepare(int[] severities);
+
+    // Replaces the engine with a fresh, empty instance
+    void clear();
+
+    void insert(int index);
+
+    // Inserts a patient previously returned by extract
+    void reinsert(Object extracted);
+
+    Object extract();
+
+    // Loads every prepared patient at once through the engine's bulk path
+    void bulkLoad();
+
+    int size();
+
+    static HeapTarget forEngine(String engine) {
+        try {
+            return (HeapTarget) Class.forName(engine + "Target").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("No benchmark target for engine " + engine, e);
+        }
+    }
+}
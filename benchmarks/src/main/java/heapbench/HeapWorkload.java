@@ -0,0 +1,56 @@
+package heapbench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parameters and engine setup shared by the heap benchmarks.
+ * Run with {@code -prof gc} to get allocation rates next to the throughput numbers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public abstract class HeapWorkload {
+
+    @Param({"PatientMinHeapOriginal", "PatientMaxHeapOriginal", "PriorityQueue",
+            "PatientBucketQueue", "PatientKeyedHeap", "PatientDaryHeap", "OffHeapPatientHeap",
+            "PatientPairingHeap", "AdaptivePriorityEngine"})
+    public String engine;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({"UNIFORM", "SKEWED_LOW", "SKEWED_HIGH", "CONSTANT"})
+    public Severities severities;
+
+    protected HeapTarget target;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        target = HeapTarget.forEngine(engine);
+        // Twice the queue size so steady-state benchmarks always have fresh patients to insert
+        target.prepare(severities.generate(2 * size, 42L));
+    }
+
+    // Resets the engine to exactly size patients
+    protected void fill() {
+        target.clear();
+        for (int i = 0; i < size; i++) {
+            target.insert(i);
+        }
+    }
+}
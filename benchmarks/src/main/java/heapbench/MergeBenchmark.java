@@ -0,0 +1,68 @@
+package heapbench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Overnight ward consolidation: {@code size} patients spread over {@code wards}
+ * queues are merged into one. merge measures the consolidation alone; mergeAndDrain
+ * also serves every patient afterwards, since a meldable heap defers work to
+ * extraction. Wards are refilled outside the measured region before each invocation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class MergeBenchmark {
+
+    @Param({"PatientMaxHeapOriginal", "PatientKeyedHeap", "PatientDaryHeap", "PatientPairingHeap"})
+    public String engine;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({"2", "16"})
+    public int wards;
+
+    private MergeTarget target;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        target = MergeTarget.forEngine(engine);
+        target.prepare(Severities.UNIFORM.generate(size, 42L), wards);
+    }
+
+    @Setup(Level.Invocation)
+    public void refill() {
+        target.fill();
+    }
+
+    @Benchmark
+    public void merge(Blackhole bh) {
+        target.mergeAll();
+        bh.consume(target.size());
+    }
+
+    @Benchmark
+    public void mergeAndDrain(Blackhole bh) {
+        target.mergeAll();
+        for (int i = 0; i < size; i++) {
+            bh.consume(target.extract());
+        }
+    }
+}
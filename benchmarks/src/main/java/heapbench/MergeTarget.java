@@ -0,0 +1,32 @@
+package heapbench;
+
+/**
+ * Bridge between MergeBenchmark and an engine split into several ward queues.
+ * Loaded by name like HeapTarget: engine {@code X} is served by the
+ * default-package class {@code XMergeTarget}.
+ */
+public interface MergeTarget {
+
+    // Creates one patient per severity and deals them round-robin to the given number of wards
+    void prepare(int[] severities, int wards);
+
+    // Replaces every ward with a fresh queue holding its patients
+    void fill();
+
+    // Consolidates every ward into the first one
+    void mergeAll();
+
+    // Extracts from the first ward
+    Object extract();
+
+    // Patients in the first ward
+    int size();
+
+    static MergeTarget forEngine(String engine) {
+        try {
+            return (MergeTarget) Class.forName(engine + "MergeTarget").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("No merge target for engine " + engine, e);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package heapbench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to reopen a durable queue: load a snapshot of {@code queued} patients and
+ * replay a log tail of {@code tail} records (inserts and extracts in equal parts).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecoveryBenchmark {
+
+    @Param({"DurablePatientQueue"})
+    public String engine;
+
+    @Param({"100000"})
+    public int queued;
+
+    @Param({"1000", "100000"})
+    public int tail;
+
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void prepare() throws IOException {
+        directory = Files.createTempDirectory("recovery-bench");
+        int[] severities = Severities.UNIFORM.generate(queued + tail, 42L);
+        DurableQueueTarget target = DurableQueueTarget.forEngine(engine);
+        // Only the explicit snapshot after the initial load; everything after it stays in the log
+        target.open(directory, "ASYNC", Integer.MAX_VALUE);
+        for (int i = 0; i < queued; i++) {
+            target.insert(severities[i]);
+        }
+        target.snapshot();
+        for (int i = 0; i < tail / 2; i++) {
+            target.insert(severities[queued + i]);
+            target.extract();
+        }
+        target.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanUp() throws IOException {
+        DurabilityBenchmark.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public int recover() throws IOException {
+        DurableQueueTarget target = DurableQueueTarget.forEngine(engine);
+        // Large snapshot interval so reopening never writes a new snapshot
+        target.open(directory, "ASYNC", Integer.MAX_VALUE);
+        int size = target.size();
+        target.close();
+        return size;
+    }
+}
@@ -0,0 +1,48 @@
+package heapbench;
+
+import java.util.SplittableRandom;
+
+/**
+ * Severity distributions used to generate benchmark workloads.
+ */
+public enum Severities {
+    // Every severity 1-10 equally likely
+    UNIFORM {
+        @Override
+        int next(SplittableRandom random) {
+            return random.nextInt(10) + 1;
+        }
+    },
+    // Most arrivals are routine: 80% fall in 1-3, the rest spread over 4-10
+    SKEWED_LOW {
+        @Override
+        int next(SplittableRandom random) {
+            return random.nextInt(10) < 8 ? random.nextInt(3) + 1 : random.nextInt(7) + 4;
+        }
+    },
+    // Mass-casualty surge: 80% fall in 8-10
+    SKEWED_HIGH {
+        @Override
+        int next(SplittableRandom random) {
+            return random.nextInt(10) < 8 ? random.nextInt(3) + 8 : random.nextInt(7) + 1;
+        }
+    },
+    // Every patient has the same severity, so every comparison is a tie
+    CONSTANT {
+        @Override
+        int next(SplittableRandom random) {
+            return 5;
+        }
+    };
+
+    abstract int next(SplittableRandom random);
+
+    public int[] generate(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] severities = new int[count];
+        for (int i = 0; i < count; i++) {
+            severities[i] = next(random);
+        }
+        return severities;
+    }
+}
@@ -0,0 +1,19 @@
+package heapbench;
+
+/**
+ * ConcurrentQueueTarget whose shard layout is chosen by the benchmark.
+ * Served by the default-package class {@code ShardedPatientQueueTarget}.
+ */
+public interface ShardedQueueTarget extends ConcurrentQueueTarget {
+
+    // Replaces the queue with an empty one; mode and placement are enum constant names
+    void configure(int shards, String mode, String placement);
+
+    static ShardedQueueTarget create() {
+        try {
+            return (ShardedQueueTarget) Class.forName("ShardedPatientQueueTarget").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("No sharded queue target", e);
+        }
+    }
+}
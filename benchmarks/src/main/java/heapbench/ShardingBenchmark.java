@@ -0,0 +1,94 @@
+package heapbench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Insert scaling of ShardedPatientQueue. insert runs an intake burst on 4 threads
+ * (change with -t); with HASH placement each thread keeps to its own shard, so on a
+ * machine with at least that many cores the score should grow almost linearly from
+ * shards=1 (one shared lock) up to one shard per thread. The queue only grows during
+ * insert, so iterations are short and it is replaced before each one. The desks group
+ * adds clinicians extracting in the selected mode alongside the intake threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 2, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class ShardingBenchmark {
+    private static final int POOL = 1 << 16;
+
+    @Param({"1", "2", "4", "8"})
+    public int shards;
+
+    @Param({"STRICT", "RELAXED"})
+    public String mode;
+
+    @Param({"HASH", "ROUND_ROBIN"})
+    public String placement;
+
+    private ShardedQueueTarget target;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        target = ShardedQueueTarget.create();
+        target.prepare(Severities.UNIFORM.generate(POOL, 42L));
+    }
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        target.configure(shards, mode, placement);
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        @Setup(Level.Iteration)
+        public void start() {
+            next = (int) (Thread.currentThread().getId() * 7919) & (POOL - 1);
+        }
+
+        int next() {
+            next = (next + 1) & (POOL - 1);
+            return next;
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void insert(Cursor cursor) {
+        target.insert(cursor.next());
+    }
+
+    @Benchmark
+    @Group("desks")
+    @GroupThreads(3)
+    public void intake(Cursor cursor) {
+        target.insert(cursor.next());
+    }
+
+    @Benchmark
+    @Group("desks")
+    @GroupThreads(1)
+    public Object clinicians() {
+        return target.poll();
+    }
+}
@@ -0,0 +1,248 @@
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Priority engine that profiles its own workload and switches implementation at run time.
+ * After every window of operations it looks at the key range of the queued patients,
+ * the mean queue depth and the insert/extract mix. It picks a bucket queue while every
+ * severity fits PatientBucketQueue. Otherwise it picks a 4-ary heap for deep or
+ * insert-heavy queues and a binary heap for the rest. A recommendation has to hold for
+ * two windows in a row before it is acted on, so one burst does not cause thrashing.
+ * Migration is incremental: the new engine takes every insert, and peek/extract compare
+ * the heads of both until the old one is empty, so no single call pays for a rebuild.
+ * The engines are not thread-safe, so the moving is still done on the caller's thread.
+ * While a migration runs, every insert and extract also moves up to MIGRATION_STEP
+ * patients, one extract plus one insert each, which adds O(MIGRATION_STEP log n) to those
+ * calls for about n / MIGRATION_STEP calls. Callers with idle moments (no clinician
+ * waiting) can call migrate to do that work there and keep it off busy periods.
+ * Equal-severity patients are not guaranteed to come out in arrival order.
+ */
+class AdaptivePriorityEngine implements PriorityEngine {
+    enum Kind { BINARY_HEAP, DARY_HEAP, BUCKET_QUEUE }
+
+    static final int DEFAULT_WINDOW = 4096;
+    private static final int MIGRATION_STEP = 32;
+    private static final int DARY_ARITY = 4;
+    private static final int DEEP_QUEUE = 1 << 12;   // mean depth at which the 4-ary heap's shallower tree pays off
+    private static final double INSERT_HEAVY = 0.6; // insert share at which its cheaper siftUp does
+
+    private final PatientKeyedHeap.Order order;
+    private final Comparator<Patient> priority;
+    private final int capacity;
+    private final int window;
+
+    private Kind kind;
+    private PriorityEngine active;   // takes every insert
+    private Kind drainingKind;
+    private PriorityEngine draining; // engine being migrated away from, or null
+    private int outOfRange;          // queued patients a bucket queue could not hold
+    private long migrations;
+
+    // Profile of the current window
+    private int operations;
+    private int inserts;
+    private long depthTotal;
+    private Kind recommended; // last window's recommendation
+
+    public AdaptivePriorityEngine(PatientKeyedHeap.Order order, int capacity) {
+        this(order, capacity, DEFAULT_WINDOW);
+    }
+
+    public AdaptivePriorityEngine(PatientKeyedHeap.Order order, int capacity, int window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("Window must be at least 1: " + window);
+        }
+        this.order = order;
+        this.priority = PriorityEngine.comparator(order);
+        this.capacity = Math.max(capacity, 1);
+        this.window = window;
+        this.kind = Kind.BINARY_HEAP;
+        this.active = create(kind);
+        this.recommended = kind;
+    }
+
+    // Lowest severity first, like PatientMinHeapOriginal
+    public static AdaptivePriorityEngine minHeap(int capacity) {
+        return new AdaptivePriorityEngine(PatientKeyedHeap.Order.MIN, capacity);
+    }
+
+    // Highest severity first, like PatientMaxHeapOriginal
+    public static AdaptivePriorityEngine maxHeap(int capacity) {
+        return new AdaptivePriorityEngine(PatientKeyedHeap.Order.MAX, capacity);
+    }
+
+    // Engine that takes inserts; the one being migrated to while isMigrating()
+    public Kind getKind() {
+        return kind;
+    }
+
+    public boolean isMigrating() {
+        return draining != null;
+    }
+
+    public long getMigrationCount() {
+        return migrations;
+    }
+
+    // Moves up to maxPatients from the old engine to the new one; returns true while a
+    // migration is still in progress
+    public boolean migrate(int maxPatients) {
+        if (maxPatients < 0) {
+            throw new IllegalArgumentException("maxPatients must not be negative: " + maxPatients);
+        }
+        if (draining != null) {
+            migrateStep(maxPatients);
+        }
+        return draining != null;
+    }
+
+    @Override
+    public int getSize() {
+        return active.getSize() + (draining == null ? 0 : draining.getSize());
+    }
+
+    @Override
+    public Patient peek() {
+        return head().peek();
+    }
+
+    @Override
+    public void insert(Patient patient) {
+        if (!fitsBucket(patient)) {
+            outOfRange++;
+            if (kind == Kind.BUCKET_QUEUE) {
+                leaveBucketQueue();
+            }
+        }
+        active.insert(patient);
+        inserts++;
+        afterOperation();
+    }
+
+    @Override
+    public Patient extract() {
+        Patient top = head().extract();
+        if (top != null && !fitsBucket(top)) {
+            outOfRange--;
+        }
+        afterOperation();
+        return top;
+    }
+
+    // Every queued patient in no particular order
+    @Override
+    public Patient[] toArray() {
+        Patient[] result = active.toArray();
+        if (draining == null) {
+            return result;
+        }
+        Patient[] old = draining.toArray();
+        Patient[] all = Arrays.copyOf(result, result.length + old.length);
+        System.arraycopy(old, 0, all, result.length, old.length);
+        return all;
+    }
+
+    // The engine holding the next patient; the old one wins ties, as it holds the earlier arrivals
+    private PriorityEngine head() {
+        if (draining == null) {
+            return active;
+        }
+        Patient old = draining.peek();
+        Patient young = active.peek();
+        if (old == null) {
+            return active;
+        }
+        return young == null || priority.compare(old, young) <= 0 ? draining : active;
+    }
+
+    private void afterOperation() {
+        if (draining != null) {
+            migrateStep(MIGRATION_STEP);
+        }
+        depthTotal += getSize();
+        if (++operations == window) {
+            endWindow();
+        }
+    }
+
+    // Moves the next few patients from the old engine to the new one
+    private void migrateStep(int maxPatients) {
+        for (int i = 0; i < maxPatients && !draining.isEmpty(); i++) {
+            active.insert(draining.extract());
+        }
+        if (draining.isEmpty()) {
+            draining = null;
+            drainingKind = null;
+        }
+    }
+
+    private void endWindow() {
+        Kind next = recommend();
+        if (next != kind && next == recommended && draining == null) {
+            startMigration(next);
+        }
+        recommended = next;
+        operations = 0;
+        inserts = 0;
+        depthTotal = 0;
+    }
+
+    private Kind recommend() {
+        return outOfRange == 0 ? Kind.BUCKET_QUEUE : recommendHeap();
+    }
+
+    private Kind recommendHeap() {
+        if (operations == 0) {
+            return Kind.BINARY_HEAP;
+        }
+        boolean deep = depthTotal / operations >= DEEP_QUEUE;
+        boolean insertHeavy = inserts >= INSERT_HEAVY * operations;
+        return deep || insertHeavy ? Kind.DARY_HEAP : Kind.BINARY_HEAP;
+    }
+
+    private void startMigration(Kind next) {
+        draining = active;
+        drainingKind = kind;
+        active = create(next);
+        kind = next;
+        migrations++;
+    }
+
+    // A severity the bucket queue cannot hold has to switch right away. If the previous
+    // heap is still draining into the bucket queue, the direction is simply reversed.
+    private void leaveBucketQueue() {
+        if (draining != null) {
+            PriorityEngine bucket = active;
+            active = draining;
+            kind = drainingKind;
+            draining = bucket;
+            drainingKind = Kind.BUCKET_QUEUE;
+            migrations++;
+        } else {
+            startMigration(recommendHeap());
+        }
+        recommended = kind;
+    }
+
+    private PriorityEngine create(Kind next) {
+        int initial = Math.max(capacity, getSizeIfCreated());
+        switch (next) {
+            case BINARY_HEAP:
+                return PriorityEngine.binaryHeap(order, initial);
+            case DARY_HEAP:
+                return PriorityEngine.daryHeap(order, DARY_ARITY, initial);
+            default:
+                return PriorityEngine.bucketQueue(order);
+        }
+    }
+
+    // Current size, or 0 while the constructor is still creating the first engine
+    private int getSizeIfCreated() {
+        return active == null ? 0 : getSize();
+    }
+
+    private static boolean fitsBucket(Patient patient) {
+        int severity = patient.getSeverityScore();
+        return severity >= PatientBucketQueue.MIN_SEVERITY && severity <= PatientBucketQueue.MAX_SEVERITY;
+    }
+}
@@ -0,0 +1,127 @@
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Priority queue that balances severity and wait time.
+ * Each patient's arrival minute is fixed on insert (now - waitTime), and the
+ * AgingPolicy turns severity and arrival into a rank that does not change as
+ * the clock advances. Waiting patients age implicitly: nothing is incremented
+ * per tick and the heap is never rebuilt, so insert/extract stay O(log n).
+ */
+class AgingPatientQueue {
+    private final AgingPolicy policy;
+    private final LongSupplier clock; // current time in minutes
+    private double[] ranks;
+    private long[] arrivals;
+    private Patient[] heap;
+    private int size;
+
+    public AgingPatientQueue(AgingPolicy policy, LongSupplier clock, int capacity) {
+        this.policy = policy;
+        this.clock = clock;
+        int initial = Math.max(capacity, 1);
+        this.ranks = new double[initial];
+        this.arrivals = new long[initial];
+        this.heap = new Patient[initial];
+        this.size = 0;
+    }
+
+    // Checks if the queue is empty
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    // Returns the patient with the highest effective priority without removing it
+    public Patient peek() {
+        return size == 0 ? null : heap[0];
+    }
+
+    // Effective priority of the patient at the top of the queue right now
+    public double peekPriority() {
+        if (size == 0) {
+            throw new IllegalStateException("Queue is empty");
+        }
+        return policy.effectivePriority(heap[0].getSeverityScore(), arrivals[0], clock.getAsLong());
+    }
+
+    // Inserts a patient who has already waited patient.getWaitTime() minutes
+    public void insert(Patient patient) {
+        insert(patient, clock.getAsLong() - patient.getWaitTime());
+    }
+
+    // Inserts a patient with an explicit arrival minute
+    public void insert(Patient patient, long arrivalMinute) {
+        if (size == heap.length) {
+            int newCapacity = heap.length * 2;
+            ranks = Arrays.copyOf(ranks, newCapacity);
+            arrivals = Arrays.copyOf(arrivals, newCapacity);
+            heap = Arrays.copyOf(heap, newCapacity);
+        }
+        siftUp(size, policy.rank(patient.getSeverityScore(), arrivalMinute), arrivalMinute, patient);
+        size++;
+    }
+
+    // Removes and returns the patient with the highest effective priority
+    public Patient extract() {
+        if (size == 0) {
+            return null;
+        }
+        Patient top = heap[0];
+        size--;
+        if (size != 0) {
+            siftDown(0, ranks[size], arrivals[size], heap[size]);
+        }
+        heap[size] = null;
+        return top;
+    }
+
+    // Higher rank first; equal ranks go to whoever arrived first
+    private static boolean before(double rankA, long arrivalA, double rankB, long arrivalB) {
+        return rankA > rankB || (rankA == rankB && arrivalA < arrivalB);
+    }
+
+    private void siftUp(int i, double rank, long arrival, Patient patient) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!before(rank, arrival, ranks[parent], arrivals[parent])) {
+                break;
+            }
+            move(parent, i);
+            i = parent;
+        }
+        set(i, rank, arrival, patient);
+    }
+
+    private void siftDown(int i, double rank, long arrival, Patient patient) {
+        int half = size / 2;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && before(ranks[right], arrivals[right], ranks[child], arrivals[child])) {
+                child = right;
+            }
+            if (!before(ranks[child], arrivals[child], rank, arrival)) {
+                break;
+            }
+            move(child, i);
+            i = child;
+        }
+        set(i, rank, arrival, patient);
+    }
+
+    private void move(int from, int to) {
+        ranks[to] = ranks[from];
+        arrivals[to] = arrivals[from];
+        heap[to] = heap[from];
+    }
+
+    private void set(int i, double rank, long arrival, Patient patient) {
+        ranks[i] = rank;
+        arrivals[i] = arrival;
+        heap[i] = patient;
+    }
+}
@@ -0,0 +1,30 @@
+/**
+ * Weighting policy for AgingPatientQueue.
+ * The queue never re-sorts as time passes, so a policy only supplies the
+ * time-invariant rank of a patient: effective priority at any moment must be
+ * rank + f(now), with f the same for every patient. Any policy that is linear in
+ * wait time has this form, e.g. a*severity + b*(now - arrival).
+ */
+interface AgingPolicy {
+
+    // Larger ranks are served first
+    double rank(int severity, long arrivalMinute);
+
+    // Priority as seen at time now; only used for reporting, never for ordering
+    double effectivePriority(int severity, long arrivalMinute, long nowMinute);
+
+    // a*severity + b*minutesWaited; b = 0 is plain severity order
+    static AgingPolicy linear(double severityWeight, double perMinuteWeight) {
+        return new AgingPolicy() {
+            @Override
+            public double rank(int severity, long arrivalMinute) {
+                return severityWeight * severity - perMinuteWeight * arrivalMinute;
+            }
+
+            @Override
+            public double effectivePriority(int severity, long arrivalMinute, long nowMinute) {
+                return severityWeight * severity + perMinuteWeight * (nowMinute - arrivalMinute);
+            }
+        };
+    }
+}
@@ -0,0 +1,137 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Source of patient arrivals for ErSimulation, in non-decreasing time order.
+ * Synthetic processes draw severities uniformly from 1-10; trace files replay
+ * recorded arrivals line by line without loading the whole file.
+ */
+interface ArrivalProcess {
+
+    /**
+     * One arrival. Processes overwrite a caller-supplied instance so that replaying
+     * millions of events does not allocate per event.
+     */
+    final class Arrival {
+        double minute;
+        int severity;
+        String name;
+    }
+
+    // Fills in the next arrival; returns false once the process is exhausted
+    boolean next(Arrival arrival);
+
+    // Memoryless arrivals at a constant average rate
+    static ArrivalProcess poisson(double patientsPerHour, long count, long seed) {
+        return bursty(patientsPerHour, patientsPerHour, 1, 1, count, seed);
+    }
+
+    /**
+     * Arrivals that alternate between a calm and a surge rate (a two-state
+     * Markov-modulated Poisson process). Each phase lasts an exponentially
+     * distributed number of minutes with the given mean, starting calm.
+     */
+    static ArrivalProcess bursty(double calmPerHour, double surgePerHour,
+                                 double meanCalmMinutes, double meanSurgeMinutes, long count, long seed) {
+        if (calmPerHour <= 0 || surgePerHour <= 0 || meanCalmMinutes <= 0 || meanSurgeMinutes <= 0) {
+            throw new IllegalArgumentException("Rates and phase lengths must be positive");
+        }
+        Random random = new Random(seed);
+        return new ArrivalProcess() {
+            private long remaining = count;
+            private double now = 0;
+            private boolean surge = false;
+            private double phaseEnd = exponential(random, meanCalmMinutes);
+
+            @Override
+            public boolean next(Arrival arrival) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                while (true) {
+                    double ratePerMinute = (surge ? surgePerHour : calmPerHour) / 60;
+                    double candidate = now + exponential(random, 1 / ratePerMinute);
+                    if (candidate <= phaseEnd) {
+                        now = candidate;
+                        break;
+                    }
+                    // Gaps are memoryless, so restarting the draw at the phase boundary is exact
+                    now = phaseEnd;
+                    surge = !surge;
+                    phaseEnd = now + exponential(random, surge ? meanSurgeMinutes : meanCalmMinutes);
+                }
+                remaining--;
+                arrival.minute = now;
+                arrival.severity = random.nextInt(10) + 1;
+                arrival.name = "Patient";
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Replays a recorded trace. Each line is {@code minute,severity[,name]}; blank lines
+     * and lines starting with '#' are skipped, and minutes must not decrease.
+     * The file is closed once the last line has been read.
+     */
+    static ArrivalProcess trace(Path file) {
+        BufferedReader reader;
+        try {
+            reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new ArrivalProcess() {
+            private long lineNumber = 0;
+            private double lastMinute = Double.NEGATIVE_INFINITY;
+            private boolean exhausted = false;
+
+            @Override
+            public boolean next(Arrival arrival) {
+                if (exhausted) {
+                    return false;
+                }
+                try {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        lineNumber++;
+                        line = line.trim();
+                        if (!line.isEmpty() && line.charAt(0) != '#') {
+                            parse(line, arrival);
+                            return true;
+                        }
+                    }
+                    exhausted = true;
+                    reader.close();
+                    return false;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            private void parse(String line, Arrival arrival) {
+                String[] fields = line.split(",", 3);
+                try {
+                    arrival.minute = Double.parseDouble(fields[0].trim());
+                    arrival.severity = Integer.parseInt(fields[1].trim());
+                } catch (RuntimeException e) {
+                    throw new IllegalArgumentException(file + ":" + lineNumber + ": expected minute,severity[,name]", e);
+                }
+                if (arrival.minute < lastMinute) {
+                    throw new IllegalArgumentException(file + ":" + lineNumber + ": arrivals must be in time order");
+                }
+                lastMinute = arrival.minute;
+                arrival.name = fields.length > 2 ? fields[2].trim() : "Patient";
+            }
+        };
+    }
+
+    private static double exponential(Random random, double mean) {
+        return -mean * Math.log(1 - random.nextDouble());
+    }
+}
@@ -0,0 +1,131 @@
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe patient queue whose consumers block instead of busy-polling isEmpty().
+ * take() waits until a patient arrives and poll(timeout, unit) waits at most that long.
+ * Queues built by ClinicianDispatcher share one lock and one "not empty" condition,
+ * so a clinician can sleep until either lane has work.
+ */
+class BlockingPatientQueue {
+    private final PatientDaryHeap heap;
+    private final ReentrantLock lock;
+    private final Condition notEmpty;
+    private final boolean sharedCondition; // other queues' consumers wait on notEmpty too
+
+    public BlockingPatientQueue(PatientKeyedHeap.Order order) {
+        this(order, new ReentrantLock());
+    }
+
+    BlockingPatientQueue(PatientKeyedHeap.Order order, ReentrantLock lock) {
+        this(order, lock, lock.newCondition(), false);
+    }
+
+    BlockingPatientQueue(PatientKeyedHeap.Order order, ReentrantLock lock, Condition notEmpty) {
+        this(order, lock, notEmpty, true);
+    }
+
+    private BlockingPatientQueue(PatientKeyedHeap.Order order, ReentrantLock lock, Condition notEmpty,
+                                 boolean sharedCondition) {
+        this.heap = order == PatientKeyedHeap.Order.MIN
+                ? PatientDaryHeap.minHeap(4, 16) : PatientDaryHeap.maxHeap(4, 16);
+        this.lock = lock;
+        this.notEmpty = notEmpty;
+        this.sharedCondition = sharedCondition;
+    }
+
+    public boolean isEmpty() {
+        lock.lock();
+        try {
+            return heap.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getSize() {
+        lock.lock();
+        try {
+            return heap.getSize();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Inserts a patient and wakes a waiting consumer
+    public void insert(Patient patient) {
+        lock.lock();
+        try {
+            heap.insert(patient);
+            if (sharedCondition) {
+                // The one woken by signal() might be waiting on the other queue and go back to sleep
+                notEmpty.signalAll();
+            } else {
+                notEmpty.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Returns the next patient without removing it, or null if the queue is empty
+    public Patient peek() {
+        lock.lock();
+        try {
+            return heap.peek();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Removes and returns the next patient, or null if the queue is empty
+    public Patient poll() {
+        lock.lock();
+        try {
+            return heap.extract();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Removes and returns the next patient, waiting as long as it takes for one to arrive
+    public Patient take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (heap.isEmpty()) {
+                notEmpty.await();
+            }
+            return heap.extract();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Removes and returns the next patient, or null if none arrives within the timeout
+    public Patient poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (heap.isEmpty()) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return heap.extract();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Caller holds lock
+    Patient peekLocked() {
+        return heap.peek();
+    }
+
+    // Caller holds lock
+    Patient extractLocked() {
+        return heap.extract();
+    }
+}
@@ -0,0 +1,152 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Runs one thread per clinician that drains the emergency (max) and routine (min)
+ * queues. An idle clinician sleeps on a condition shared by both queues and is
+ * woken by the next insert into either, so quiet shifts burn no CPU.
+ * Exceptions thrown by the service callback go to the clinician thread's uncaught
+ * exception handler; the clinician keeps serving.
+ * On Java 21+ the clinicians run on virtual threads; older runtimes fall back to
+ * daemon platform threads.
+ */
+class ClinicianDispatcher {
+
+    enum Lane { EMERGENCY, ROUTINE }
+
+    /**
+     * Decides which lane a free clinician serves next. Only called when at least one
+     * top is non-null; a choice of an empty lane falls back to the other one.
+     */
+    interface ServicePolicy {
+        Lane choose(Patient emergencyTop, Patient routineTop);
+
+        // Routine patients are only seen when no emergency is waiting
+        static ServicePolicy emergencyFirst() {
+            return (emergencyTop, routineTop) -> emergencyTop != null ? Lane.EMERGENCY : Lane.ROUTINE;
+        }
+
+        // Serves up to emergencyPerRoutine emergencies for every routine patient so routine care never starves
+        static ServicePolicy weighted(int emergencyPerRoutine) {
+            int[] served = {0};
+            return (emergencyTop, routineTop) -> {
+                if (routineTop == null || (emergencyTop != null && served[0] < emergencyPerRoutine)) {
+                    served[0]++;
+                    return Lane.EMERGENCY;
+                }
+                served[0] = 0;
+                return Lane.ROUTINE;
+            };
+        }
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition anyWaiting = lock.newCondition();
+    private final BlockingPatientQueue emergency = new BlockingPatientQueue(PatientKeyedHeap.Order.MAX, lock, anyWaiting);
+    private final BlockingPatientQueue routine = new BlockingPatientQueue(PatientKeyedHeap.Order.MIN, lock, anyWaiting);
+    private final ServicePolicy policy; // only called while holding lock
+    private final Consumer<Patient> service;
+    private final ThreadFactory threadFactory;
+    private final List<Thread> clinicians = new ArrayList<>();
+
+    public ClinicianDispatcher(ServicePolicy policy, Consumer<Patient> service) {
+        this(policy, service, defaultThreadFactory());
+    }
+
+    public ClinicianDispatcher(ServicePolicy policy, Consumer<Patient> service, ThreadFactory threadFactory) {
+        this.policy = policy;
+        this.service = service;
+        this.threadFactory = threadFactory;
+    }
+
+    public BlockingPatientQueue getEmergencyQueue() {
+        return emergency;
+    }
+
+    public BlockingPatientQueue getRoutineQueue() {
+        return routine;
+    }
+
+    // Starts the given number of clinicians
+    public synchronized void start(int clinicianCount) {
+        for (int i = 0; i < clinicianCount; i++) {
+            Thread clinician = threadFactory.newThread(this::serve);
+            clinician.setName("clinician-" + clinicians.size());
+            clinicians.add(clinician);
+            clinician.start();
+        }
+    }
+
+    // Interrupts every clinician and waits for them to finish the patient in hand
+    public synchronized void shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        for (Thread clinician : clinicians) {
+            clinician.interrupt();
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Thread clinician : clinicians) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining > 0) {
+                clinician.join(remaining);
+            }
+        }
+        clinicians.clear();
+    }
+
+    // Blocks until either lane has a patient and returns the one the policy picks
+    public Patient next() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            Patient emergencyTop = emergency.peekLocked();
+            Patient routineTop = routine.peekLocked();
+            while (emergencyTop == null && routineTop == null) {
+                anyWaiting.await();
+                emergencyTop = emergency.peekLocked();
+                routineTop = routine.peekLocked();
+            }
+            Lane lane = policy.choose(emergencyTop, routineTop);
+            if ((lane == Lane.EMERGENCY && emergencyTop != null) || routineTop == null) {
+                return emergency.extractLocked();
+            }
+            return routine.extractLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // A failing service call is reported to the clinician thread's uncaught exception handler
+    // and the clinician moves on to the next patient, so one bad patient never costs capacity
+    private void serve() {
+        Thread clinician = Thread.currentThread();
+        try {
+            while (!clinician.isInterrupted()) {
+                Patient patient = next();
+                try {
+                    service.accept(patient);
+                } catch (RuntimeException e) {
+                    clinician.getUncaughtExceptionHandler().uncaughtException(clinician, e);
+                }
+            }
+        } catch (InterruptedException e) {
+            clinician.interrupt();
+        }
+    }
+
+    // Thread.ofVirtual().factory() when the runtime has virtual threads, daemon platform threads otherwise
+    static ThreadFactory defaultThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            return runnable -> {
+                Thread thread = new Thread(runnable);
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+    }
+}
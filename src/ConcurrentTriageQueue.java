@@ -0,0 +1,154 @@
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe, relaxed priority queue for many intake desks and clinicians.
+ * Patients are spread over several lock-striped sub-heaps, and each sub-heap
+ * publishes the severity at its top so threads can pick one without locking.
+ * An extraction takes the top of some sub-heap whose published severity is within
+ * maxSeverityGap levels of the best published top, so concurrent clinicians spread
+ * over different locks instead of all fighting for the single global best.
+ * maxSeverityGap = 0 only ever serves the best severity currently queued.
+ * Order within a severity level is not guaranteed.
+ */
+class ConcurrentTriageQueue {
+    private static final int EMPTY = Integer.MIN_VALUE;
+    private static final int SPIN_ATTEMPTS = 4;
+
+    private final PatientKeyedHeap.Order order;
+    private final int maxSeverityGap;
+    private final PatientDaryHeap[] heaps;
+    private final ReentrantLock[] locks;
+    private final AtomicIntegerArray tops; // published top score per sub-heap, larger served first
+    private final LongAdder size = new LongAdder(); // striped, so counting never serializes threads
+
+    public ConcurrentTriageQueue(PatientKeyedHeap.Order order, int subQueues, int maxSeverityGap) {
+        if (subQueues < 1) {
+            throw new IllegalArgumentException("Need at least one sub-queue: " + subQueues);
+        }
+        if (maxSeverityGap < 0) {
+            throw new IllegalArgumentException("Severity gap must not be negative: " + maxSeverityGap);
+        }
+        this.order = order;
+        this.maxSeverityGap = maxSeverityGap;
+        this.heaps = new PatientDaryHeap[subQueues];
+        this.locks = new ReentrantLock[subQueues];
+        this.tops = new AtomicIntegerArray(subQueues);
+        for (int i = 0; i < subQueues; i++) {
+            heaps[i] = order == PatientKeyedHeap.Order.MIN
+                    ? PatientDaryHeap.minHeap(4, 16) : PatientDaryHeap.maxHeap(4, 16);
+            locks[i] = new ReentrantLock();
+            tops.set(i, EMPTY);
+        }
+    }
+
+    // Two sub-queues per core keeps lock collisions rare
+    public static ConcurrentTriageQueue forCores(PatientKeyedHeap.Order order, int maxSeverityGap) {
+        return new ConcurrentTriageQueue(order, 2 * Runtime.getRuntime().availableProcessors(), maxSeverityGap);
+    }
+
+    // Approximate while other threads are inserting or extracting
+    public boolean isEmpty() {
+        for (int i = 0; i < tops.length(); i++) {
+            if (tops.get(i) != EMPTY) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Approximate while other threads are inserting or extracting
+    public int getSize() {
+        return size.intValue();
+    }
+
+    // Inserts into whichever sub-heap can be locked first, starting from a random one
+    public void insert(Patient patient) {
+        int n = heaps.length;
+        int start = ThreadLocalRandom.current().nextInt(n);
+        for (int k = 0; k < n; k++) {
+            int i = (start + k) % n;
+            if (locks[i].tryLock()) {
+                insertLocked(i, patient);
+                return;
+            }
+        }
+        locks[start].lock();
+        insertLocked(start, patient);
+    }
+
+    private void insertLocked(int i, Patient patient) {
+        try {
+            heaps[i].insert(patient);
+            publishTop(i);
+        } finally {
+            locks[i].unlock();
+        }
+        size.increment();
+    }
+
+    // Removes and returns a patient within maxSeverityGap of the best queued severity, or null if empty
+    public Patient poll() {
+        int attempts = 0;
+        while (true) {
+            int i = chooseSubQueue();
+            if (i < 0) {
+                return null;
+            }
+            ReentrantLock lock = locks[i];
+            if (attempts++ < SPIN_ATTEMPTS) {
+                if (!lock.tryLock()) {
+                    continue;
+                }
+            } else {
+                lock.lock();
+            }
+            try {
+                Patient patient = heaps[i].extract();
+                if (patient != null) {
+                    publishTop(i);
+                    size.decrement();
+                    return patient;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Picks a random sub-heap among those whose published top is close enough to the best one
+    private int chooseSubQueue() {
+        int n = tops.length();
+        while (true) {
+            int best = EMPTY;
+            for (int i = 0; i < n; i++) {
+                best = Math.max(best, tops.get(i));
+            }
+            if (best == EMPTY) {
+                return -1;
+            }
+            int threshold = best - maxSeverityGap;
+            int start = ThreadLocalRandom.current().nextInt(n);
+            for (int k = 0; k < n; k++) {
+                int i = (start + k) % n;
+                int top = tops.get(i);
+                if (top != EMPTY && top >= threshold) {
+                    return i;
+                }
+            }
+            // The best sub-heap was drained while scanning; look again
+        }
+    }
+
+    // Caller holds locks[i]
+    private void publishTop(int i) {
+        Patient top = heaps[i].peek();
+        int score = EMPTY;
+        if (top != null) {
+            score = order == PatientKeyedHeap.Order.MAX ? top.getSeverityScore() : -top.getSeverityScore();
+        }
+        tops.set(i, score);
+    }
+}
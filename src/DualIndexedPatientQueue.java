@@ -0,0 +1,268 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Patient queue indexed both by severity and by arrival, for SLA monitoring.
+ * Every patient has one Handle that sits in two indexed binary heaps at once: the
+ * severity heap serves patients, and the arrival heap keeps the longest-waiting
+ * patient at its root. Each handle knows its slot in both heaps, so extracting from
+ * either side, re-triaging or removing a patient updates the other heap in O(log n).
+ * "Who has waited longer than m minutes" walks the arrival heap from the root and
+ * stops at the first patient in each branch who arrived too recently, so it touches
+ * only the k matching patients and at most twice as many non-matching ones.
+ * Equal severities are served in arrival order.
+ */
+class DualIndexedPatientQueue {
+
+    /**
+     * Reference to a queued patient. Both slots are maintained by the queue and are
+     * -1 once the patient has been served or removed. getPatient returns the
+     * re-triaged copy after updateSeverity.
+     */
+    static final class Handle {
+        private Patient patient;
+        private final long arrivalMinute;
+        private final long sequence;
+        private int severitySlot;
+        private int arrivalSlot;
+
+        private Handle(Patient patient, long arrivalMinute, long sequence) {
+            this.patient = patient;
+            this.arrivalMinute = arrivalMinute;
+            this.sequence = sequence;
+        }
+
+        public Patient getPatient() {
+            return patient;
+        }
+
+        public long getArrivalMinute() {
+            return arrivalMinute;
+        }
+
+        public boolean isQueued() {
+            return severitySlot >= 0;
+        }
+    }
+
+    private static final Comparator<Handle> BY_ARRIVAL =
+            Comparator.<Handle>comparingLong(h -> h.arrivalMinute).thenComparingLong(h -> h.sequence);
+
+    private final LongSupplier clock; // current time in minutes
+    private final Side bySeverity;
+    private final Side byArrival;
+    private long nextSequence;
+
+    public DualIndexedPatientQueue(PatientKeyedHeap.Order order, LongSupplier clock, int capacity) {
+        this.clock = clock;
+        Comparator<Handle> severity = Comparator.comparingInt(h -> h.patient.getSeverityScore());
+        if (order == PatientKeyedHeap.Order.MAX) {
+            severity = severity.reversed();
+        }
+        this.bySeverity = new Side(severity.thenComparing(BY_ARRIVAL), true, capacity);
+        this.byArrival = new Side(BY_ARRIVAL, false, capacity);
+    }
+
+    // Lowest severity first, like PatientMinHeapOriginal
+    public static DualIndexedPatientQueue minHeap(LongSupplier clock, int capacity) {
+        return new DualIndexedPatientQueue(PatientKeyedHeap.Order.MIN, clock, capacity);
+    }
+
+    // Highest severity first, like PatientMaxHeapOriginal
+    public static DualIndexedPatientQueue maxHeap(LongSupplier clock, int capacity) {
+        return new DualIndexedPatientQueue(PatientKeyedHeap.Order.MAX, clock, capacity);
+    }
+
+    // Checks if the queue is empty
+    public boolean isEmpty() {
+        return bySeverity.size == 0;
+    }
+
+    public int getSize() {
+        return bySeverity.size;
+    }
+
+    // Inserts a patient who has already waited patient.getWaitTime() minutes
+    public Handle insert(Patient patient) {
+        return insert(patient, clock.getAsLong() - patient.getWaitTime());
+    }
+
+    // Inserts a patient with an explicit arrival minute
+    public Handle insert(Patient patient, long arrivalMinute) {
+        Handle handle = new Handle(patient, arrivalMinute, nextSequence++);
+        bySeverity.add(handle);
+        byArrival.add(handle);
+        return handle;
+    }
+
+    // Returns the highest priority patient without removing it
+    public Patient peek() {
+        return bySeverity.size == 0 ? null : bySeverity.heap[0].patient;
+    }
+
+    // Removes and returns the highest priority patient
+    public Patient extract() {
+        return bySeverity.size == 0 ? null : removeHandle(bySeverity.heap[0]);
+    }
+
+    // Returns the longest-waiting patient without removing it
+    public Patient peekOldest() {
+        return byArrival.size == 0 ? null : byArrival.heap[0].patient;
+    }
+
+    // Removes and returns the longest-waiting patient regardless of severity
+    public Patient extractOldest() {
+        return byArrival.size == 0 ? null : removeHandle(byArrival.heap[0]);
+    }
+
+    // Minutes the longest-waiting patient has waited so far, or 0 if the queue is empty
+    public long longestWaitMinutes() {
+        return byArrival.size == 0 ? 0 : clock.getAsLong() - byArrival.heap[0].arrivalMinute;
+    }
+
+    // Handles of every patient who has waited longer than the given minutes, in no particular order
+    public List<Handle> waitingLongerThan(long minutes) {
+        long cutoff = clock.getAsLong() - minutes; // arrived strictly before this minute
+        List<Handle> result = new ArrayList<>();
+        if (byArrival.size == 0 || byArrival.heap[0].arrivalMinute >= cutoff) {
+            return result;
+        }
+        int[] stack = new int[32];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int i = stack[--top];
+            result.add(byArrival.heap[i]);
+            for (int child = 2 * i + 1; child <= 2 * i + 2 && child < byArrival.size; child++) {
+                if (byArrival.heap[child].arrivalMinute < cutoff) {
+                    if (top == stack.length) {
+                        stack = Arrays.copyOf(stack, top * 2);
+                    }
+                    stack[top++] = child;
+                }
+            }
+        }
+        return result;
+    }
+
+    // Number of patients who have waited longer than the given minutes
+    public int countWaitingLongerThan(long minutes) {
+        return waitingLongerThan(minutes).size();
+    }
+
+    // Re-triages a queued patient (the handle switches to a re-triaged copy); its place in
+    // the arrival order does not change
+    public void updateSeverity(Handle handle, int newScore) {
+        checkQueued(handle);
+        handle.patient = handle.patient.retriaged(newScore);
+        bySeverity.fix(handle.severitySlot, handle);
+    }
+
+    // Removes a queued patient (e.g. left without being seen)
+    public void remove(Handle handle) {
+        checkQueued(handle);
+        removeHandle(handle);
+    }
+
+    private void checkQueued(Handle handle) {
+        int slot = handle.severitySlot;
+        if (slot < 0 || slot >= bySeverity.size || bySeverity.heap[slot] != handle) {
+            throw new IllegalArgumentException("Patient is not in this queue: " + handle.patient);
+        }
+    }
+
+    private Patient removeHandle(Handle handle) {
+        bySeverity.removeAt(handle.severitySlot);
+        byArrival.removeAt(handle.arrivalSlot);
+        return handle.patient;
+    }
+
+    /**
+     * One of the two indexed heaps. Which slot field of the handle it maintains is
+     * chosen by severitySide, so a single Handle can live in both heaps.
+     */
+    private static final class Side {
+        private final Comparator<Handle> order; // negative means "closer to the root"
+        private final boolean severitySide;
+        private Handle[] heap;
+        private int size;
+
+        Side(Comparator<Handle> order, boolean severitySide, int capacity) {
+            this.order = order;
+            this.severitySide = severitySide;
+            this.heap = new Handle[Math.max(capacity, 1)];
+        }
+
+        void add(Handle handle) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, heap.length * 2);
+            }
+            siftUp(size++, handle);
+        }
+
+        void removeAt(int i) {
+            Handle removed = heap[i];
+            size--;
+            Handle last = heap[size];
+            heap[size] = null;
+            if (i != size) {
+                fix(i, last);
+            }
+            setSlot(removed, -1);
+        }
+
+        // Places handle into slot i, moving it up or down as its priority requires
+        void fix(int i, Handle handle) {
+            if (i > 0 && order.compare(handle, heap[(i - 1) / 2]) < 0) {
+                siftUp(i, handle);
+            } else {
+                siftDown(i, handle);
+            }
+        }
+
+        private void siftUp(int i, Handle handle) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (order.compare(heap[parent], handle) <= 0) {
+                    break;
+                }
+                place(i, heap[parent]);
+                i = parent;
+            }
+            place(i, handle);
+        }
+
+        private void siftDown(int i, Handle handle) {
+            int half = size / 2;
+            while (i < half) {
+                int child = 2 * i + 1;
+                int right = child + 1;
+                if (right < size && order.compare(heap[right], heap[child]) < 0) {
+                    child = right;
+                }
+                if (order.compare(handle, heap[child]) <= 0) {
+                    break;
+                }
+                place(i, heap[child]);
+                i = child;
+            }
+            place(i, handle);
+        }
+
+        private void place(int i, Handle handle) {
+            heap[i] = handle;
+            setSlot(handle, i);
+        }
+
+        private void setSlot(Handle handle, int slot) {
+            if (severitySide) {
+                handle.severitySlot = slot;
+            } else {
+                handle.arrivalSlot = slot;
+            }
+        }
+    }
+}
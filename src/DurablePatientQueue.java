@@ -0,0 +1,342 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Crash-recoverable patient queue.
+ * Every insert, extract, re-triage and removal is appended to a WriteAheadLog before
+ * the call returns, and every snapshotEvery operations the heap array is written out
+ * as-is to a snapshot file and the log is restarted. Recovery loads the snapshot
+ * straight into the array (it is already in heap order) and replays the log tail;
+ * the heap is deterministic, so replay reproduces the exact same array.
+ * Patients are identified by the id returned from insert.
+ */
+class DurablePatientQueue implements Closeable {
+    private static final String LOG_FILE = "queue.wal";
+    private static final String SNAPSHOT_FILE = "queue.snapshot";
+    private static final int SNAPSHOT_MAGIC = 0x48534E31; // "HSN1"
+
+    private static final byte INSERT = 1;
+    private static final byte EXTRACT = 2;
+    private static final byte RETRIAGE = 3;
+    private static final byte REMOVE = 4;
+
+    private final Path directory;
+    private final IndexedPatientHeap heap;
+    private final WriteAheadLog.Durability durability;
+    private final int snapshotEvery;
+    private final Map<Long, IndexedPatientHeap.Handle> byId = new HashMap<>();
+    private final Map<IndexedPatientHeap.Handle, Long> idOf = new IdentityHashMap<>();
+    private ByteBuffer record = ByteBuffer.allocate(256);
+    private WriteAheadLog log;
+    private long nextId;
+    private int operationsSinceSnapshot;
+
+    private DurablePatientQueue(Path directory, PatientKeyedHeap.Order order, WriteAheadLog.Durability durability,
+                                int snapshotEvery) {
+        this.directory = directory;
+        this.heap = order == PatientKeyedHeap.Order.MIN ? IndexedPatientHeap.minHeap(16) : IndexedPatientHeap.maxHeap(16);
+        this.durability = durability;
+        this.snapshotEvery = snapshotEvery;
+    }
+
+    // Opens the queue stored in directory, recovering whatever a previous process left behind
+    public static DurablePatientQueue open(Path directory, PatientKeyedHeap.Order order,
+                                           WriteAheadLog.Durability durability, int snapshotEvery) throws IOException {
+        return open(directory, order, durability, snapshotEvery, 2, TimeUnit.MILLISECONDS);
+    }
+
+    // commitInterval is how long GROUP and ASYNC let records collect before one fsync
+    public static DurablePatientQueue open(Path directory, PatientKeyedHeap.Order order,
+                                           WriteAheadLog.Durability durability, int snapshotEvery,
+                                           long commitInterval, TimeUnit unit) throws IOException {
+        Files.createDirectories(directory);
+        DurablePatientQueue queue = new DurablePatientQueue(directory, order, durability, snapshotEvery);
+        long snapshotEpoch = queue.loadSnapshot();
+        // A log older than the snapshot (crash between writing it and restarting the log) is skipped
+        try {
+            queue.log = WriteAheadLog.open(directory.resolve(LOG_FILE), durability, commitInterval, unit,
+                    snapshotEpoch, queue::apply);
+        } catch (IllegalStateException e) {
+            throw new IOException("Write-ahead log does not match the snapshot in " + directory, e);
+        }
+        return queue;
+    }
+
+    public synchronized boolean isEmpty() {
+        return heap.isEmpty();
+    }
+
+    public synchronized int getSize() {
+        return heap.getSize();
+    }
+
+    public synchronized Patient peek() {
+        return heap.peek();
+    }
+
+    // Inserts a patient and returns the id used for updateSeverity and remove
+    public long insert(Patient patient) throws IOException {
+        long sequence;
+        long id;
+        synchronized (this) {
+            id = nextId;
+            byte[] name = encodeName(patient);
+            ByteBuffer record = recordBuffer(19 + name.length);
+            record.put(INSERT).putLong(id).putInt(patient.getSeverityScore()).putInt(patient.getWaitTime())
+                    .putShort((short) name.length).put(name);
+            sequence = logRecord(record);
+            applyInsert(id, patient);
+            snapshotIfDue();
+        }
+        awaitDurable(sequence);
+        return id;
+    }
+
+    // Removes and returns the highest priority patient, or null if the queue is empty
+    public Patient extract() throws IOException {
+        long sequence;
+        Patient patient;
+        synchronized (this) {
+            if (heap.isEmpty()) {
+                return null;
+            }
+            ByteBuffer record = recordBuffer(1);
+            record.put(EXTRACT);
+            sequence = logRecord(record);
+            patient = applyExtract();
+            snapshotIfDue();
+        }
+        awaitDurable(sequence);
+        return patient;
+    }
+
+    // Re-triages a queued patient; returns false if the id is not queued
+    public boolean updateSeverity(long id, int newScore) throws IOException {
+        long sequence;
+        synchronized (this) {
+            if (!byId.containsKey(id)) {
+                return false;
+            }
+            ByteBuffer record = recordBuffer(13);
+            record.put(RETRIAGE).putLong(id).putInt(newScore);
+            sequence = logRecord(record);
+            heap.updateSeverity(byId.get(id), newScore);
+            snapshotIfDue();
+        }
+        awaitDurable(sequence);
+        return true;
+    }
+
+    // Removes a queued patient; returns false if the id is not queued
+    public boolean remove(long id) throws IOException {
+        long sequence;
+        synchronized (this) {
+            if (!byId.containsKey(id)) {
+                return false;
+            }
+            ByteBuffer record = recordBuffer(9);
+            record.put(REMOVE).putLong(id);
+            sequence = logRecord(record);
+            applyRemove(id);
+            snapshotIfDue();
+        }
+        awaitDurable(sequence);
+        return true;
+    }
+
+    // Writes the heap array to a new snapshot and restarts the log
+    public synchronized void snapshot() throws IOException {
+        long newEpoch = log.getEpoch() + 1;
+        writeSnapshot(newEpoch);
+        log.reset(newEpoch);
+        operationsSinceSnapshot = 0;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        log.close();
+    }
+
+    // Caller holds the monitor; the record buffer is reused, so it is returned cleared
+    private ByteBuffer recordBuffer(int bytes) {
+        if (record.capacity() < bytes) {
+            record = ByteBuffer.allocate(Math.max(bytes, record.capacity() * 2));
+        }
+        record.clear();
+        return record;
+    }
+
+    // Caller holds the monitor
+    private long logRecord(ByteBuffer record) throws IOException {
+        record.flip();
+        return log.append(record);
+    }
+
+    // Caller holds the monitor; runs after the operation was applied so the snapshot includes it
+    private void snapshotIfDue() throws IOException {
+        if (++operationsSinceSnapshot >= snapshotEvery) {
+            snapshot();
+        }
+    }
+
+    private static byte[] encodeName(Patient patient) {
+        byte[] name = patient.getName().getBytes(StandardCharsets.UTF_8);
+        if (name.length > 0xFFFF) {
+            throw new IllegalArgumentException("Patient name too long to log: " + name.length + " bytes");
+        }
+        return name;
+    }
+
+    private void awaitDurable(long sequence) throws IOException {
+        if (durability == WriteAheadLog.Durability.GROUP) {
+            log.awaitDurable(sequence);
+        }
+    }
+
+    private void apply(ByteBuffer payload) {
+        byte type = payload.get();
+        switch (type) {
+            case INSERT: {
+                long id = payload.getLong();
+                int severity = payload.getInt();
+                int waitTime = payload.getInt();
+                byte[] name = new byte[payload.getShort() & 0xFFFF];
+                payload.get(name);
+                applyInsert(id, new Patient(new String(name, StandardCharsets.UTF_8), severity, waitTime));
+                break;
+            }
+            case EXTRACT:
+                if (heap.isEmpty()) {
+                    throw new IllegalStateException("Log extracts from an empty queue");
+                }
+                applyExtract();
+                break;
+            case RETRIAGE: {
+                long id = payload.getLong();
+                heap.updateSeverity(queuedHandle(id), payload.getInt());
+                break;
+            }
+            case REMOVE: {
+                long id = payload.getLong();
+                queuedHandle(id);
+                applyRemove(id);
+                break;
+            }
+            default:
+                throw new IllegalStateException("Unknown log record type " + type);
+        }
+    }
+
+    // Replay only: a record naming a patient that is not queued means the log and snapshot disagree
+    private IndexedPatientHeap.Handle queuedHandle(long id) {
+        IndexedPatientHeap.Handle handle = byId.get(id);
+        if (handle == null) {
+            throw new IllegalStateException("Log refers to patient " + id + ", which is not queued");
+        }
+        return handle;
+    }
+
+    private void applyInsert(long id, Patient patient) {
+        IndexedPatientHeap.Handle handle = heap.insert(patient);
+        byId.put(id, handle);
+        idOf.put(handle, id);
+        nextId = Math.max(nextId, id + 1);
+    }
+
+    private Patient applyExtract() {
+        IndexedPatientHeap.Handle top = heap.peekHandle();
+        heap.remove(top);
+        byId.remove(idOf.remove(top));
+        return top.getPatient();
+    }
+
+    private void applyRemove(long id) {
+        IndexedPatientHeap.Handle handle = byId.remove(id);
+        idOf.remove(handle);
+        heap.remove(handle);
+    }
+
+    // Snapshot layout: magic, epoch, nextId, size, then per entry in array order
+    // [long id][int severity][int waitTime][short nameLength][name bytes]
+    private void writeSnapshot(long epoch) throws IOException {
+        IndexedPatientHeap.Handle[] handles = heap.handlesInHeapOrder();
+        ByteBuffer buffer = ByteBuffer.allocate(24 + handles.length * 32);
+        buffer.putInt(SNAPSHOT_MAGIC).putLong(epoch).putLong(nextId).putInt(handles.length);
+        for (IndexedPatientHeap.Handle handle : handles) {
+            Patient patient = handle.getPatient();
+            byte[] name = encodeName(patient);
+            if (buffer.remaining() < 18 + name.length) {
+                buffer = grow(buffer, 18 + name.length);
+            }
+            buffer.putLong(idOf.get(handle)).putInt(patient.getSeverityScore()).putInt(patient.getWaitTime())
+                    .putShort((short) name.length).put(name);
+        }
+        buffer.flip();
+        Path temp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(SNAPSHOT_FILE), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        // The rename is only durable once the directory entry is; until then a crash can bring
+        // back the old snapshot, so this must happen before the log is restarted
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        }
+    }
+
+    // Returns the snapshot's epoch, or 0 if there is none
+    private long loadSnapshot() throws IOException {
+        Path file = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt() != SNAPSHOT_MAGIC) {
+            throw new IOException("Not a queue snapshot: " + file);
+        }
+        long epoch = buffer.getLong();
+        nextId = buffer.getLong();
+        int count = buffer.getInt();
+        long[] ids = new long[count];
+        Patient[] patients = new Patient[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = buffer.getLong();
+            int severity = buffer.getInt();
+            int waitTime = buffer.getInt();
+            byte[] name = new byte[buffer.getShort() & 0xFFFF];
+            buffer.get(name);
+            patients[i] = new Patient(new String(name, StandardCharsets.UTF_8), severity, waitTime);
+        }
+        IndexedPatientHeap.Handle[] handles = heap.restoreHeapOrder(patients);
+        for (int i = 0; i < count; i++) {
+            byId.put(ids[i], handles[i]);
+            idOf.put(handles[i], ids[i]);
+        }
+        return epoch;
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, int needed) {
+        ByteBuffer bigger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + needed));
+        buffer.flip();
+        return bigger.put(buffer);
+    }
+}
@@ -0,0 +1,259 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Headless discrete-event simulation of an emergency room.
+ * Patients arrive from an ArrivalProcess, wait in the queue engine under test
+ * (highest severity first) and are seen by a fixed number of clinicians whose
+ * visit lengths come from a ServiceTime distribution. The next event is always
+ * either the next arrival or the earliest clinician to finish, so no general
+ * event list is needed and each event costs O(log clinicians) plus the queue operation.
+ */
+class ErSimulation {
+
+    /**
+     * The queue being measured. Only extract when the simulation knows the queue
+     * is non-empty, so engines do not need a size query.
+     */
+    interface Engine {
+        void insert(Patient patient);
+
+        Patient extract();
+
+        // Fresh emergency-order engine by class name, e.g. "PatientKeyedHeap"
+        static Engine forName(String name) {
+            switch (name) {
+                case "PatientMaxHeapOriginal": {
+                    PatientMaxHeapOriginal heap = new PatientMaxHeapOriginal(INITIAL_CAPACITY);
+                    return of(heap::insert, heap::extractMax);
+                }
+                case "PatientKeyedHeap": {
+                    PatientKeyedHeap heap = PatientKeyedHeap.maxHeap(INITIAL_CAPACITY);
+                    return of(heap::insert, heap::extract);
+                }
+                case "PatientDaryHeap": {
+                    PatientDaryHeap heap = PatientDaryHeap.maxHeap(4, INITIAL_CAPACITY);
+                    return of(heap::insert, heap::extract);
+                }
+                case "PatientBucketQueue": {
+                    PatientBucketQueue queue = new PatientBucketQueue();
+                    return of(queue::insert, queue::extractMax);
+                }
+                case "PatientMinMaxHeap": {
+                    PatientMinMaxHeap heap = new PatientMinMaxHeap(INITIAL_CAPACITY);
+                    return of(heap::insert, heap::extractMax);
+                }
+                case "IndexedPatientHeap": {
+                    IndexedPatientHeap heap = IndexedPatientHeap.maxHeap(INITIAL_CAPACITY);
+                    return of(heap::insert, heap::extract);
+                }
+                case "AdaptivePriorityEngine": {
+                    AdaptivePriorityEngine engine = AdaptivePriorityEngine.maxHeap(INITIAL_CAPACITY);
+                    return of(engine::insert, engine::extract);
+                }
+                case "PriorityQueue": {
+                    PriorityQueue<Patient> queue = new PriorityQueue<>(INITIAL_CAPACITY, Comparator.reverseOrder());
+                    return of(queue::add, queue::poll);
+                }
+                default:
+                    throw new IllegalArgumentException("Unknown engine: " + name);
+            }
+        }
+
+        private static Engine of(Consumer<Patient> insert, Supplier<Patient> extract) {
+            return new Engine() {
+                @Override
+                public void insert(Patient patient) {
+                    insert.accept(patient);
+                }
+
+                @Override
+                public Patient extract() {
+                    return extract.get();
+                }
+            };
+        }
+    }
+
+    // Patient stamped with its arrival so the wait can be measured when a clinician picks it up
+    private static final class WaitingPatient extends Patient {
+        final double arrivalMinute;
+
+        WaitingPatient(String name, int severity, double arrivalMinute) {
+            super(name, severity, 0);
+            this.arrivalMinute = arrivalMinute;
+        }
+    }
+
+    /**
+     * Outcome of one run. Wait percentiles are exact (every wait is kept and sorted),
+     * in simulated minutes; throughput is measured in wall-clock time.
+     */
+    static final class Report {
+        final long events;          // arrivals plus clinician completions
+        final long queueOperations; // inserts plus extracts
+        final long wallNanos;
+        final long patientsSeen;
+        final double simulatedMinutes;
+        final double utilization;   // fraction of clinician time spent with patients
+        final int maxQueueLength;
+        final double meanWait;
+        final double p50Wait;
+        final double p99Wait;
+        final double p999Wait;
+        final double maxWait;
+
+        private Report(long events, long queueOperations, long wallNanos, double simulatedMinutes,
+                       double utilization, int maxQueueLength, double[] sortedWaits, int waitCount, double totalWait) {
+            this.events = events;
+            this.queueOperations = queueOperations;
+            this.wallNanos = wallNanos;
+            this.patientsSeen = waitCount;
+            this.simulatedMinutes = simulatedMinutes;
+            this.utilization = utilization;
+            this.maxQueueLength = maxQueueLength;
+            this.meanWait = waitCount == 0 ? 0 : totalWait / waitCount;
+            this.p50Wait = percentile(sortedWaits, waitCount, 0.5);
+            this.p99Wait = percentile(sortedWaits, waitCount, 0.99);
+            this.p999Wait = percentile(sortedWaits, waitCount, 0.999);
+            this.maxWait = waitCount == 0 ? 0 : sortedWaits[waitCount - 1];
+        }
+
+        private static double percentile(double[] sorted, int count, double q) {
+            return count == 0 ? 0 : sorted[(int) Math.max(0, Math.ceil(q * count) - 1)];
+        }
+
+        public double eventsPerSecond() {
+            return events * 1e9 / Math.max(wallNanos, 1);
+        }
+
+        public double queueOperationsPerSecond() {
+            return queueOperations * 1e9 / Math.max(wallNanos, 1);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%,d patients seen over %.1f simulated hours (utilization %.1f%%, max queue %,d)%n"
+                            + "  %,.0f events/s, %,.0f queue ops/s (%.1f ms wall)%n"
+                            + "  wait minutes: mean %.1f, p50 %.1f, p99 %.1f, p999 %.1f, max %.1f",
+                    patientsSeen, simulatedMinutes / 60, utilization * 100, maxQueueLength,
+                    eventsPerSecond(), queueOperationsPerSecond(), wallNanos / 1e6,
+                    meanWait, p50Wait, p99Wait, p999Wait, maxWait);
+        }
+    }
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Supplier<Engine> engineFactory;
+    private final ServiceTime serviceTime;
+    private final int clinicians;
+    private final long seed;
+
+    public ErSimulation(Supplier<Engine> engineFactory, ServiceTime serviceTime, int clinicians, long seed) {
+        if (clinicians < 1) {
+            throw new IllegalArgumentException("Need at least one clinician: " + clinicians);
+        }
+        this.engineFactory = engineFactory;
+        this.serviceTime = serviceTime;
+        this.clinicians = clinicians;
+        this.seed = seed;
+    }
+
+    public ErSimulation(String engine, ServiceTime serviceTime, int clinicians, long seed) {
+        this(() -> Engine.forName(engine), serviceTime, clinicians, seed);
+    }
+
+    // Replays every arrival until the last patient has been seen; each run starts from a fresh engine
+    public Report run(ArrivalProcess arrivals) {
+        Engine queue = engineFactory.get();
+        Random random = new Random(seed);
+        double[] finishTimes = new double[clinicians]; // min-heap of busy clinicians' finish times
+        int busy = 0;
+        int queued = 0;
+        int maxQueued = 0;
+        double[] waits = new double[1024];
+        int waitCount = 0;
+        double totalWait = 0;
+        double totalService = 0;
+        long events = 0;
+        long operations = 0;
+        double now = 0;
+
+        ArrivalProcess.Arrival next = new ArrivalProcess.Arrival();
+        boolean more = arrivals.next(next);
+        long start = System.nanoTime();
+        while (more || busy > 0) {
+            if (more && (busy == 0 || next.minute <= finishTimes[0])) {
+                now = next.minute;
+                queue.insert(new WaitingPatient(next.name, next.severity, now));
+                operations++;
+                maxQueued = Math.max(maxQueued, ++queued);
+                more = arrivals.next(next);
+            } else {
+                now = finishTimes[0];
+                busy = removeEarliest(finishTimes, busy);
+            }
+            events++;
+
+            // Every free clinician takes the next patient
+            while (busy < clinicians && queued > 0) {
+                WaitingPatient patient = (WaitingPatient) queue.extract();
+                operations++;
+                queued--;
+                double wait = now - patient.arrivalMinute;
+                if (waitCount == waits.length) {
+                    waits = Arrays.copyOf(waits, waitCount * 2);
+                }
+                waits[waitCount++] = wait;
+                totalWait += wait;
+                double visit = serviceTime.sample(patient.getSeverityScore(), random);
+                totalService += visit;
+                busy = addFinish(finishTimes, busy, now + visit);
+            }
+        }
+        long wallNanos = System.nanoTime() - start;
+
+        Arrays.sort(waits, 0, waitCount);
+        double utilization = now == 0 ? 0 : totalService / (now * clinicians);
+        return new Report(events, operations, wallNanos, now, utilization, maxQueued, waits, waitCount, totalWait);
+    }
+
+    // Adds a finish time to the heap of busy clinicians and returns the new count
+    private static int addFinish(double[] heap, int count, double time) {
+        int i = count;
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (heap[parent] <= time) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = time;
+        return count + 1;
+    }
+
+    // Removes the earliest finish time and returns the new count
+    private static int removeEarliest(double[] heap, int count) {
+        count--;
+        double last = heap[count];
+        int i = 0;
+        while (2 * i + 1 < count) {
+            int child = 2 * i + 1;
+            if (child + 1 < count && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (last <= heap[child]) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return count;
+    }
+}
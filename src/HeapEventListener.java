@@ -0,0 +1,12 @@
+/**
+ * Optional callback for heap operations, attached through HeapMetrics.
+ * Called on the thread that performed the operation, after it completed.
+ */
+interface HeapEventListener {
+
+    default void onInsert(Patient patient, int depth) {
+    }
+
+    default void onExtract(Patient patient, int depth) {
+    }
+}
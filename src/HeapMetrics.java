@@ -0,0 +1,89 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Instrumentation for a heap: operation, comparison and swap counters, latency
+ * histograms per operation, a queue-depth gauge and an optional event listener.
+ * A heap with no HeapMetrics attached only bumps two plain long fields per sift step;
+ * clocks are read and counters published only once metrics are attached.
+ * All readers are safe to call from a monitoring thread.
+ */
+class HeapMetrics {
+    private final LongAdder inserts = new LongAdder();
+    private final LongAdder extracts = new LongAdder();
+    private final LongAdder comparisons = new LongAdder();
+    private final LongAdder swaps = new LongAdder();
+    private final LatencyHistogram insertLatency = new LatencyHistogram();
+    private final LatencyHistogram extractLatency = new LatencyHistogram();
+    private volatile int depth;
+    private volatile HeapEventListener listener;
+
+    public void setListener(HeapEventListener listener) {
+        this.listener = listener;
+    }
+
+    void recordInsert(Patient patient, long nanos, long comparisonCount, long swapCount, int newDepth) {
+        inserts.increment();
+        record(insertLatency, nanos, comparisonCount, swapCount, newDepth);
+        HeapEventListener l = listener;
+        if (l != null) {
+            l.onInsert(patient, newDepth);
+        }
+    }
+
+    void recordExtract(Patient patient, long nanos, long comparisonCount, long swapCount, int newDepth) {
+        extracts.increment();
+        record(extractLatency, nanos, comparisonCount, swapCount, newDepth);
+        HeapEventListener l = listener;
+        if (l != null) {
+            l.onExtract(patient, newDepth);
+        }
+    }
+
+    private void record(LatencyHistogram histogram, long nanos, long comparisonCount, long swapCount, int newDepth) {
+        histogram.record(nanos);
+        if (comparisonCount != 0) {
+            comparisons.add(comparisonCount);
+        }
+        if (swapCount != 0) {
+            swaps.add(swapCount);
+        }
+        depth = newDepth;
+    }
+
+    public long getInserts() {
+        return inserts.sum();
+    }
+
+    public long getExtracts() {
+        return extracts.sum();
+    }
+
+    public long getComparisons() {
+        return comparisons.sum();
+    }
+
+    public long getSwaps() {
+        return swaps.sum();
+    }
+
+    // Queue depth after the most recent recorded operation
+    public int getDepth() {
+        return depth;
+    }
+
+    public LatencyHistogram getInsertLatency() {
+        return insertLatency;
+    }
+
+    public LatencyHistogram getExtractLatency() {
+        return extractLatency;
+    }
+
+    @Override
+    public String toString() {
+        return "inserts=" + getInserts() + " extracts=" + getExtracts() + " comparisons=" + getComparisons()
+                + " swaps=" + getSwaps() + " depth=" + getDepth()
+                + " insertP99=" + insertLatency.percentile(0.99) + "ns"
+                + " extractP99=" + extractLatency.percentile(0.99) + "ns";
+    }
+}
@@ -0,0 +1,43 @@
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * Immutable copy of a heap's contents at one version, in heap (array) order,
+ * so index i's children are still at 2i+1 and 2i+2. Snapshots are shared between
+ * readers and never change after publication.
+ */
+final class HeapSnapshot {
+    private final long version;
+    private final Patient[] patients;
+
+    HeapSnapshot(long version, Patient[] patients) {
+        this.version = version;
+        this.patients = patients;
+    }
+
+    // Number of completed writes to the heap when this snapshot was taken
+    public long getVersion() {
+        return version;
+    }
+
+    public int getSize() {
+        return patients.length;
+    }
+
+    public boolean isEmpty() {
+        return patients.length == 0;
+    }
+
+    public Patient get(int index) {
+        return patients[index];
+    }
+
+    public Stream<Patient> stream() {
+        return Arrays.stream(patients);
+    }
+
+    // Defensive copy of the contents in heap order
+    public Patient[] toArray() {
+        return patients.clone();
+    }
+}
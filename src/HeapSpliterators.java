@@ -0,0 +1,219 @@
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+/**
+ * Read paths over an array-backed binary heap that do not copy the array.
+ * Both spliterators are fail-fast: they check the owning heap's modification count
+ * and throw ConcurrentModificationException if the heap changed under them.
+ */
+final class HeapSpliterators {
+
+    private HeapSpliterators() {
+    }
+
+    /**
+     * Unordered view of heap[from, to). Splits in halves down to single patients,
+     * and every split knows its exact size (SIZED | SUBSIZED), so parallel streams
+     * divide the work evenly.
+     */
+    static Spliterator<Patient> unordered(Patient[] heap, int from, int to, IntSupplier modCount) {
+        return new Unordered(heap, from, to, modCount, modCount.getAsInt());
+    }
+
+    /**
+     * Patients in priority order, produced lazily: the next patient is always one of
+     * the children of patients already returned, so after k patients only a frontier
+     * of at most k + 1 candidates has been looked at, in O(k log k) total.
+     * priority is negative when its first argument comes out first.
+     */
+    static Spliterator<Patient> priorityOrdered(Patient[] heap, int size,
+                                                Comparator<? super Patient> priority, IntSupplier modCount) {
+        return new PriorityOrdered(heap, size, priority, modCount, modCount.getAsInt());
+    }
+
+    private static final class Unordered implements Spliterator<Patient> {
+        private final Patient[] heap;
+        private final IntSupplier modCount;
+        private final int expectedModCount;
+        private int index;
+        private final int end;
+
+        Unordered(Patient[] heap, int from, int to, IntSupplier modCount, int expectedModCount) {
+            this.heap = heap;
+            this.index = from;
+            this.end = to;
+            this.modCount = modCount;
+            this.expectedModCount = expectedModCount;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Patient> action) {
+            checkUnmodified(modCount, expectedModCount);
+            if (index >= end) {
+                return false;
+            }
+            action.accept(heap[index++]);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Patient> action) {
+            for (int i = index; i < end; i++) {
+                action.accept(heap[i]);
+            }
+            index = end;
+            checkUnmodified(modCount, expectedModCount);
+        }
+
+        @Override
+        public Spliterator<Patient> trySplit() {
+            int mid = (index + end) >>> 1;
+            if (mid <= index) {
+                return null;
+            }
+            Spliterator<Patient> prefix = new Unordered(heap, index, mid, modCount, expectedModCount);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return SIZED | SUBSIZED | NONNULL;
+        }
+    }
+
+    private static final class PriorityOrdered implements Spliterator<Patient> {
+        private final Patient[] heap;
+        private final int size;
+        private final IntSupplier modCount;
+        private final int expectedModCount;
+        private final PriorityQueue<Integer> frontier;
+        private int returned;
+
+        PriorityOrdered(Patient[] heap, int size, Comparator<? super Patient> priority,
+                        IntSupplier modCount, int expectedModCount) {
+            this.heap = heap;
+            this.size = size;
+            this.modCount = modCount;
+            this.expectedModCount = expectedModCount;
+            this.frontier = new PriorityQueue<>((a, b) -> priority.compare(heap[a], heap[b]));
+            if (size > 0) {
+                frontier.add(0);
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Patient> action) {
+            checkUnmodified(modCount, expectedModCount);
+            Integer next = frontier.poll();
+            if (next == null) {
+                return false;
+            }
+            int index = next;
+            int left = 2 * index + 1;
+            if (left < size) {
+                frontier.add(left);
+            }
+            if (left + 1 < size) {
+                frontier.add(left + 1);
+            }
+            returned++;
+            action.accept(heap[index]);
+            return true;
+        }
+
+        // Priority order is inherently sequential
+        @Override
+        public Spliterator<Patient> trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return size - returned;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | NONNULL;
+        }
+    }
+
+    /**
+     * Indices of the min(k, size) first patients in priority order, without modifying
+     * the heap. Like priorityOrdered it expands a frontier of candidates from the root,
+     * here kept in a plain int array heap so nothing is boxed: O(k log k) time and
+     * O(k) space however large the heap is.
+     */
+    static int[] topKIndices(Patient[] heap, int size, int k, Comparator<? super Patient> priority) {
+        int count = Math.max(0, Math.min(k, size));
+        int[] result = new int[count];
+        if (count == 0) {
+            return result;
+        }
+        int[] frontier = new int[count + 1]; // each step removes one index and adds at most two
+        int frontierSize = 1;                // frontier[0] = 0, the root
+        for (int n = 0; n < count; n++) {
+            int index = frontier[0];
+            result[n] = index;
+            int left = 2 * index + 1;
+            // The left child takes the popped slot, so only the right child grows the frontier
+            frontier[0] = left < size ? left : frontier[--frontierSize];
+            if (frontierSize > 0) {
+                siftFrontierDown(frontier, frontierSize, heap, priority);
+            }
+            if (left + 1 < size) {
+                frontier[frontierSize] = left + 1;
+                siftFrontierUp(frontier, frontierSize++, heap, priority);
+            }
+        }
+        return result;
+    }
+
+    private static void siftFrontierUp(int[] frontier, int i, Patient[] heap,
+                                       Comparator<? super Patient> priority) {
+        int index = frontier[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (priority.compare(heap[frontier[parent]], heap[index]) <= 0) {
+                break;
+            }
+            frontier[i] = frontier[parent];
+            i = parent;
+        }
+        frontier[i] = index;
+    }
+
+    private static void siftFrontierDown(int[] frontier, int size, Patient[] heap,
+                                         Comparator<? super Patient> priority) {
+        int i = 0;
+        int index = frontier[0];
+        while (2 * i + 1 < size) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && priority.compare(heap[frontier[child + 1]], heap[frontier[child]]) < 0) {
+                child++;
+            }
+            if (priority.compare(heap[index], heap[frontier[child]]) <= 0) {
+                break;
+            }
+            frontier[i] = frontier[child];
+            i = child;
+        }
+        frontier[i] = index;
+    }
+
+    private static void checkUnmodified(IntSupplier modCount, int expectedModCount) {
+        if (modCount.getAsInt() != expectedModCount) {
+            throw new ConcurrentModificationException("Heap was modified while being streamed");
+        }
+    }
+}
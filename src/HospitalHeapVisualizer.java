@@ -1,7 +1,10 @@
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * HospitalHeapVisualizer - GUI application for visualizing MinHeap and MaxHeap operations
@@ -18,17 +21,22 @@ public class HospitalHeapVisualizer extends JFrame {
     private JSpinner severitySpinner;
     private JButton insertButton;
     private JButton extractButton;
+    private JButton extractRoutineButton;
     private JButton randomPatientButton;
+    private JButton bulkAddButton;
     private JButton clearButton;
     private JTextArea operationLogArea;
 
-    private PatientMinHeap minHeap;
-    private PatientMaxHeap maxHeap;
-
-    private enum HeapType { MIN_HEAP, MAX_HEAP }
+    private enum HeapType { MIN_HEAP, MAX_HEAP, MIN_MAX_HEAP, ADAPTIVE }
     private HeapType currentHeapType = HeapType.MIN_HEAP;
 
-    private static final int MAX_HEAP_SIZE = 31; // Enough for a complete binary tree with 5 levels
+    // One engine per heap type, all driven through the same interface
+    private final VisualizedEngine[] engines = new VisualizedEngine[HeapType.values().length];
+    private AdaptivePriorityEngine.Kind loggedAdaptiveKind;
+
+    private static final int INITIAL_CAPACITY = 31; // Heaps grow past this as patients arrive
+    private static final int ADAPTIVE_WINDOW = 16;  // Short profiling window so switches show up after a few clicks
+    private static final int BULK_ADD_COUNT = 1000;
     private static final String[] FIRST_NAMES = {"John", "Mary", "James", "Patricia", "Robert", "Jennifer", "Michael", "Linda", "William", "Elizabeth"};
     private static final String[] LAST_NAMES = {"Smith", "Johnson", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez", "Wilson"};
 
@@ -38,8 +46,9 @@ public class HospitalHeapVisualizer extends JFrame {
         setSize(1000, 700);
 
         // Initialize heaps
-        minHeap = new PatientMinHeap(MAX_HEAP_SIZE);
-        maxHeap = new PatientMaxHeap(MAX_HEAP_SIZE);
+        for (HeapType type : HeapType.values()) {
+            engines[type.ordinal()] = createEngine(type);
+        }
 
         // Create main components
         mainPanel = new JPanel(new BorderLayout());
@@ -69,10 +78,12 @@ public class HospitalHeapVisualizer extends JFrame {
         heapTypePanel.setBorder(BorderFactory.createTitledBorder("Heap Type"));
 
         JPanel comboBoxPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
-        heapTypeComboBox = new JComboBox<>(new String[]{"Min Heap (Routine Care)", "Max Heap (Emergency Care)"});
+        heapTypeComboBox = new JComboBox<>(new String[]{"Min Heap (Routine Care)", "Max Heap (Emergency Care)",
+                "Min-Max Heap (Both Lanes)", "Adaptive (Emergency Care)"});
         heapTypeComboBox.setMaximumSize(new Dimension(280, 25));
         heapTypeComboBox.addActionListener(e -> {
-            currentHeapType = heapTypeComboBox.getSelectedIndex() == 0 ? HeapType.MIN_HEAP : HeapType.MAX_HEAP;
+            currentHeapType = HeapType.values()[heapTypeComboBox.getSelectedIndex()];
+            extractRoutineButton.setEnabled(currentHeapType == HeapType.MIN_MAX_HEAP);
             updateHeapView();
         });
         comboBoxPanel.add(heapTypeComboBox);
@@ -104,7 +115,7 @@ public class HospitalHeapVisualizer extends JFrame {
         panel.add(Box.createVerticalStrut(10));
 
         // Operation Buttons
-        JPanel buttonPanel = new JPanel(new GridLayout(2, 2, 5, 5));
+        JPanel buttonPanel = new JPanel(new GridLayout(4, 2, 5, 5));
 
         insertButton = new JButton("Insert Patient");
         insertButton.addActionListener(e -> handleInsertPatient());
@@ -112,9 +123,17 @@ public class HospitalHeapVisualizer extends JFrame {
         extractButton = new JButton("Extract Patient");
         extractButton.addActionListener(e -> handleExtractPatient());
 
+        // The min-max heap serves both lanes: Extract Patient takes the emergency end, this the routine end
+        extractRoutineButton = new JButton("Extract Routine");
+        extractRoutineButton.addActionListener(e -> handleExtractRoutinePatient());
+        extractRoutineButton.setEnabled(false);
+
         randomPatientButton = new JButton("Add Random Patient");
         randomPatientButton.addActionListener(e -> handleAddRandomPatient());
 
+        bulkAddButton = new JButton("Add " + BULK_ADD_COUNT + " Random");
+        bulkAddButton.addActionListener(e -> handleBulkAddPatients());
+
         clearButton = new JButton("Clear Heap");
         clearButton.addActionListener(e -> handleClearHeap());
 
@@ -122,6 +141,8 @@ public class HospitalHeapVisualizer extends JFrame {
         buttonPanel.add(extractButton);
         buttonPanel.add(randomPatientButton);
         buttonPanel.add(clearButton);
+        buttonPanel.add(extractRoutineButton);
+        buttonPanel.add(bulkAddButton);
 
         panel.add(buttonPanel);
         panel.add(Box.createVerticalStrut(10));
@@ -149,13 +170,8 @@ public class HospitalHeapVisualizer extends JFrame {
             int severity = (Integer) severitySpinner.getValue();
             Patient patient = new Patient(name, severity, 0);
 
-            if (currentHeapType == HeapType.MIN_HEAP) {
-                minHeap.insert(patient);
-                logOperation("Inserted: " + patient + " into MinHeap");
-            } else {
-                maxHeap.insert(patient);
-                logOperation("Inserted: " + patient + " into MaxHeap");
-            }
+            insertIntoCurrentHeap(patient);
+            logOperation("Inserted: " + patient + " into " + currentHeapName());
 
             updateHeapView();
         } catch (Exception ex) {
@@ -165,47 +181,93 @@ public class HospitalHeapVisualizer extends JFrame {
 
     private void handleExtractPatient() {
         try {
-            Patient extracted = null;
-
-            if (currentHeapType == HeapType.MIN_HEAP) {
-                extracted = minHeap.extractMin();
-                logOperation("Extracted: " + extracted + " from MinHeap");
-            } else {
-                extracted = maxHeap.extractMax();
-                logOperation("Extracted: " + extracted + " from MaxHeap");
-            }
+            logExtraction(currentEngine().extract());
+            updateHeapView();
+        } catch (Exception ex) {
+            logOperation("Error: " + ex.getMessage());
+        }
+    }
 
+    private void handleExtractRoutinePatient() {
+        try {
+            PatientDoubleEndedHeap minMaxHeap = (PatientDoubleEndedHeap) engines[HeapType.MIN_MAX_HEAP.ordinal()];
+            logExtraction(minMaxHeap.extractMin());
             updateHeapView();
         } catch (Exception ex) {
             logOperation("Error: " + ex.getMessage());
         }
     }
 
+    private void logExtraction(Patient extracted) {
+        if (extracted == null) {
+            logOperation(currentHeapName() + " is empty");
+        } else {
+            logOperation("Extracted: " + extracted + " from " + currentHeapName());
+        }
+    }
+
+    private VisualizedEngine createEngine(HeapType type) {
+        switch (type) {
+            case MIN_HEAP:
+                return new PatientMinHeap(INITIAL_CAPACITY);
+            case MAX_HEAP:
+                return new PatientMaxHeap(INITIAL_CAPACITY);
+            case MIN_MAX_HEAP:
+                return new PatientDoubleEndedHeap(INITIAL_CAPACITY);
+            default:
+                return new AdaptiveEngine(INITIAL_CAPACITY, ADAPTIVE_WINDOW);
+        }
+    }
+
+    private VisualizedEngine currentEngine() {
+        return engines[currentHeapType.ordinal()];
+    }
+
+    private void insertIntoCurrentHeap(Patient patient) {
+        currentEngine().insert(patient);
+    }
+
+    private String currentHeapName() {
+        switch (currentHeapType) {
+            case MIN_HEAP:
+                return "MinHeap";
+            case MAX_HEAP:
+                return "MaxHeap";
+            case MIN_MAX_HEAP:
+                return "MinMaxHeap";
+            default:
+                return "AdaptiveQueue";
+        }
+    }
+
     private void handleAddRandomPatient() {
         String name = generateRandomName();
         int severity = new Random().nextInt(10) + 1; // 1-10
 
         Patient patient = new Patient(name, severity, 0);
 
-        if (currentHeapType == HeapType.MIN_HEAP) {
-            minHeap.insert(patient);
-            logOperation("Inserted random: " + patient + " into MinHeap");
-        } else {
-            maxHeap.insert(patient);
-            logOperation("Inserted random: " + patient + " into MaxHeap");
+        insertIntoCurrentHeap(patient);
+        logOperation("Inserted random: " + patient + " into " + currentHeapName());
+
+        updateHeapView();
+    }
+
+    private void handleBulkAddPatients() {
+        Random random = new Random();
+        for (int i = 0; i < BULK_ADD_COUNT; i++) {
+            insertIntoCurrentHeap(new Patient(generateRandomName(), random.nextInt(10) + 1, 0));
         }
+        logOperation("Inserted " + BULK_ADD_COUNT + " random patients into " + currentHeapName());
 
         updateHeapView();
     }
 
     private void handleClearHeap() {
-        if (currentHeapType == HeapType.MIN_HEAP) {
-            minHeap = new PatientMinHeap(MAX_HEAP_SIZE);
-            logOperation("MinHeap cleared");
-        } else {
-            maxHeap = new PatientMaxHeap(MAX_HEAP_SIZE);
-            logOperation("MaxHeap cleared");
+        engines[currentHeapType.ordinal()] = createEngine(currentHeapType);
+        if (currentHeapType == HeapType.ADAPTIVE) {
+            loggedAdaptiveKind = null;
         }
+        logOperation(currentHeapName() + " cleared");
 
         updateHeapView();
     }
@@ -224,20 +286,120 @@ public class HospitalHeapVisualizer extends JFrame {
     }
 
     private void updateHeapView() {
+        logAdaptiveSwitch();
         heapPanel.repaint();
     }
 
+    // Notes in the log when the adaptive engine has started moving to another implementation
+    private void logAdaptiveSwitch() {
+        AdaptiveEngine adaptive = (AdaptiveEngine) engines[HeapType.ADAPTIVE.ordinal()];
+        if (adaptive.getKind() == loggedAdaptiveKind) {
+            return;
+        }
+        if (loggedAdaptiveKind != null) {
+            logOperation("AdaptiveQueue switching from " + describe(loggedAdaptiveKind) + " to "
+                    + describe(adaptive.getKind()));
+        }
+        loggedAdaptiveKind = adaptive.getKind();
+    }
+
+    private static String describe(AdaptivePriorityEngine.Kind kind) {
+        switch (kind) {
+            case BINARY_HEAP:
+                return "binary heap";
+            case DARY_HEAP:
+                return "4-ary heap";
+            default:
+                return "bucket queue";
+        }
+    }
+
     /**
-     * Custom panel for visualizing the heap as a binary tree
+     * Custom panel for visualizing the heap as a binary tree.
+     * Only nodes inside the viewport are drawn; drag to pan, scroll to zoom, double-click
+     * to reset. Levels too dense to draw at the current zoom collapse into "+N" summary
+     * nodes. The tree is rendered into a back buffer, and when only a few slots changed
+     * since the last paint (the path a siftUp/siftDown touched) only their cells are
+     * redrawn.
      */
     private class HeapPanel extends JPanel {
         private static final int NODE_RADIUS = 30;
         private static final int LEVEL_HEIGHT = 80;
-        private Font nodeFont = new Font("Arial", Font.BOLD, 12);
-        private Font severityFont = new Font("Arial", Font.BOLD, 14);
+        private static final int TOP_MARGIN = 60;
+        private static final int LABEL_HEIGHT = 18;
+        private static final int MIN_NODE_SPACING = 2 * NODE_RADIUS + 10; // narrower levels are collapsed
+        private static final int MIN_LABEL_SPACING = 110;                 // narrower levels drop the name
+        private static final int MAX_DIRTY_CELLS = 256;                    // more changes than this repaint fully
+        private static final double MIN_ZOOM = 0.25;
+        private static final double MAX_ZOOM = 1 << 16;
+
+        private static final Font NODE_FONT = new Font("Arial", Font.BOLD, 12);
+        private static final Font SEVERITY_FONT = new Font("Arial", Font.BOLD, 14);
+        private static final Font TITLE_FONT = new Font("Arial", Font.BOLD, 18);
+        private static final Font EMPTY_FONT = new Font("Arial", Font.ITALIC, 16);
+        private static final Font SUMMARY_FONT = new Font("Arial", Font.PLAIN, 11);
+        private static final Color LOW_SEVERITY = new Color(144, 238, 144);   // Light green
+        private static final Color MEDIUM_SEVERITY = new Color(255, 255, 0);  // Yellow
+        private static final Color HIGH_SEVERITY = new Color(255, 99, 71);    // Tomato red
+        private static final Color SUMMARY_COLOR = new Color(220, 220, 220);
+
+        // Viewport: screen x = world x * zoom + panX, screen y = world y + panY
+        private double zoom = 1.0;
+        private double panX = 0;
+        private double panY = 0;
+        private Point dragStart;
+
+        // Back buffer and what it currently shows
+        private java.awt.image.BufferedImage buffer;
+        private HeapSnapshot renderedSnapshot;
+        private Patient[] rendered = new Patient[0];
+        private int renderedSize;
+        private HeapType renderedType;
+        private double renderedZoom;
+        private double renderedPanX;
+        private double renderedPanY;
+        private int renderedDepth;
 
         public HeapPanel() {
             setBackground(Color.WHITE);
+
+            MouseAdapter navigation = new MouseAdapter() {
+                @Override
+                public void mousePressed(MouseEvent e) {
+                    dragStart = e.getPoint();
+                }
+
+                @Override
+                public void mouseDragged(MouseEvent e) {
+                    panX += e.getX() - dragStart.x;
+                    panY += e.getY() - dragStart.y;
+                    dragStart = e.getPoint();
+                    repaint();
+                }
+
+                @Override
+                public void mouseWheelMoved(MouseWheelEvent e) {
+                    double factor = Math.pow(1.2, -e.getPreciseWheelRotation());
+                    double newZoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom * factor));
+                    // Keep the world point under the cursor fixed
+                    panX = e.getX() - (e.getX() - panX) * (newZoom / zoom);
+                    zoom = newZoom;
+                    repaint();
+                }
+
+                @Override
+                public void mouseClicked(MouseEvent e) {
+                    if (e.getClickCount() == 2) {
+                        zoom = 1.0;
+                        panX = 0;
+                        panY = 0;
+                        repaint();
+                    }
+                }
+            };
+            addMouseListener(navigation);
+            addMouseMotionListener(navigation);
+            addMouseWheelListener(navigation);
         }
 
         @Override
@@ -246,140 +408,523 @@ public class HospitalHeapVisualizer extends JFrame {
             Graphics2D g2d = (Graphics2D) g;
             g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
-            // Get the current heap
-            Object[] heap;
-            int size;
+            // Take a consistent snapshot of the current heap; writers are never blocked by painting
+            HeapSnapshot snapshot = currentEngine().snapshot();
             String heapTypeText;
 
             if (currentHeapType == HeapType.MIN_HEAP) {
-                heap = minHeap.getHeapArray();
-                size = minHeap.getSize();
                 heapTypeText = "MinHeap (Routine Care - Lower Severity First)";
-            } else {
-                heap = maxHeap.getHeapArray();
-                size = maxHeap.getSize();
+            } else if (currentHeapType == HeapType.MAX_HEAP) {
                 heapTypeText = "MaxHeap (Emergency Care - Higher Severity First)";
+            } else if (currentHeapType == HeapType.MIN_MAX_HEAP) {
+                heapTypeText = "MinMaxHeap (Min on Even Levels, Max on Odd Levels)";
+            } else {
+                AdaptiveEngine adaptive = (AdaptiveEngine) currentEngine();
+                heapTypeText = "Adaptive (Emergency Care, in Priority Order) - " + describe(adaptive.getKind())
+                        + (adaptive.isMigrating() ? ", migrating" : "");
             }
-
-            // Draw heap type title
-            g2d.setFont(new Font("Arial", Font.BOLD, 18));
-            g2d.drawString(heapTypeText, 20, 30);
+            int size = snapshot.getSize();
 
             if (size == 0) {
-                g2d.setFont(new Font("Arial", Font.ITALIC, 16));
+                drawTitle(g2d, heapTypeText, size);
+                g2d.setFont(EMPTY_FONT);
                 g2d.drawString("Heap is empty. Add patients using the controls on the right.",
                         getWidth() / 2 - 200, getHeight() / 2);
+                rendered = new Patient[0];
+                renderedSize = 0;
+                renderedSnapshot = null;
                 return;
             }
 
-            // Calculate root position
-            int rootX = getWidth() / 2;
-            int rootY = 60;
+            updateBuffer(snapshot);
+            g2d.drawImage(buffer, 0, 0, null);
+            drawTitle(g2d, heapTypeText, size);
+        }
 
-            // Draw the heap recursively
-            drawHeapNode(g2d, (Patient[])heap, 0, rootX, rootY, getWidth() / 4, 0);
+        private void drawTitle(Graphics2D g2d, String heapTypeText, int size) {
+            g2d.setColor(getBackground());
+            g2d.fillRect(0, 0, getWidth(), 40);
+            g2d.setColor(Color.BLACK);
+            g2d.setFont(TITLE_FONT);
+            g2d.drawString(heapTypeText + "  [" + size + " patients]", 20, 30);
         }
 
-        private void drawHeapNode(Graphics2D g2d, Patient[] heap, int index, int x, int y,
-                                  int horizontalOffset, int level) {
-            if (index >= heap.length || heap[index] == null) {
+        // Brings the back buffer up to date, redrawing only changed cells when possible
+        private void updateBuffer(HeapSnapshot snapshot) {
+            int size = snapshot.getSize();
+            int depth = detailedDepth(size);
+            boolean viewChanged = buffer == null || buffer.getWidth() != getWidth()
+                    || buffer.getHeight() != getHeight() || renderedType != currentHeapType
+                    || renderedZoom != zoom || renderedPanX != panX || renderedPanY != panY
+                    || renderedDepth != depth;
+            if (!viewChanged && snapshot == renderedSnapshot) {
                 return;
             }
+            Patient[] heap = snapshot.toArray();
+
+            java.util.BitSet dirty = viewChanged ? null : dirtyCells(heap, size, depth);
+            if (dirty == null) {
+                if (buffer == null || buffer.getWidth() != getWidth() || buffer.getHeight() != getHeight()) {
+                    buffer = new java.awt.image.BufferedImage(Math.max(getWidth(), 1), Math.max(getHeight(), 1),
+                            java.awt.image.BufferedImage.TYPE_INT_RGB);
+                }
+                Graphics2D g = createBufferGraphics();
+                g.setColor(getBackground());
+                g.fillRect(0, 0, buffer.getWidth(), buffer.getHeight());
+                renderAll(g, heap, size, depth);
+                g.dispose();
+            } else if (!dirty.isEmpty()) {
+                Graphics2D g = createBufferGraphics();
+                for (int i = dirty.nextSetBit(0); i >= 0; i = dirty.nextSetBit(i + 1)) {
+                    redrawCell(g, heap, size, depth, i);
+                }
+                g.dispose();
+            }
 
-            Patient patient = heap[index];
+            rendered = heap;
+            renderedSize = size;
+            renderedSnapshot = snapshot;
+            renderedType = currentHeapType;
+            renderedZoom = zoom;
+            renderedPanX = panX;
+            renderedPanY = panY;
+            renderedDepth = depth;
+        }
 
-            // Draw connections to children first (so they appear behind nodes)
-            int leftChildIndex = 2 * index + 1;
-            int rightChildIndex = 2 * index + 2;
+        private Graphics2D createBufferGraphics() {
+            Graphics2D g = buffer.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            return g;
+        }
 
-            if (leftChildIndex < heap.length && heap[leftChildIndex] != null) {
-                int childX = x - horizontalOffset;
-                int childY = y + LEVEL_HEIGHT;
-                g2d.drawLine(x, y + NODE_RADIUS, childX, childY - NODE_RADIUS);
+        // Cells whose contents differ from what the buffer shows, or null if a full render is cheaper
+        private java.util.BitSet dirtyCells(Patient[] heap, int size, int depth) {
+            java.util.BitSet dirty = new java.util.BitSet();
+            int count = 0;
+            int limit = Math.max(size, renderedSize);
+            for (int i = 0; i < limit; i++) {
+                Patient now = i < size ? heap[i] : null;
+                Patient before = i < renderedSize ? rendered[i] : null;
+                if (now == before) {
+                    continue;
+                }
+                int cell = i;
+                while (level(cell) > depth) {
+                    cell = (cell - 1) / 2; // collapsed slot: its summary lives in the ancestor's cell
+                }
+                dirty.set(cell);
+                // A slot that appeared or vanished also changes the edge drawn in its parent's cell
+                if ((now == null || before == null) && cell > 0 && cell == i) {
+                    dirty.set((cell - 1) / 2);
+                }
+                if (++count > MAX_DIRTY_CELLS) {
+                    return null;
+                }
             }
+            return dirty;
+        }
 
-            if (rightChildIndex < heap.length && heap[rightChildIndex] != null) {
-                int childX = x + horizontalOffset;
-                int childY = y + LEVEL_HEIGHT;
-                g2d.drawLine(x, y + NODE_RADIUS, childX, childY - NODE_RADIUS);
+        // Deepest level whose nodes are far enough apart on screen to be drawn individually
+        private int detailedDepth(int size) {
+            int deepest = level(size - 1);
+            int depth = 0;
+            while (depth < deepest && depth < 30 && spacing(depth + 1) >= MIN_NODE_SPACING) {
+                depth++;
             }
+            return depth;
+        }
 
-            // Determine node color based on severity
-            Color nodeColor;
-            if (patient.getSeverityScore() <= 3) {
-                nodeColor = new Color(144, 238, 144); // Light green for low severity
-            } else if (patient.getSeverityScore() <= 7) {
-                nodeColor = new Color(255, 255, 0);   // Yellow for medium severity
-            } else {
-                nodeColor = new Color(255, 99, 71);   // Tomato red for high severity
+        private int level(int index) {
+            return 31 - Integer.numberOfLeadingZeros(index + 1);
+        }
+
+        // Horizontal distance between neighbouring nodes on a level, in screen pixels
+        private double spacing(int level) {
+            return getWidth() * zoom / (1L << level);
+        }
+
+        private double screenX(int index) {
+            int level = level(index);
+            int position = index - ((1 << level) - 1);
+            return (position + 0.5) * spacing(level) + panX;
+        }
+
+        private double screenY(int index) {
+            return TOP_MARGIN + level(index) * LEVEL_HEIGHT + panY;
+        }
+
+        private void renderAll(Graphics2D g, Patient[] heap, int size, int depth) {
+            int height = getHeight();
+            for (int level = 0; level <= depth; level++) {
+                double y = TOP_MARGIN + level * LEVEL_HEIGHT + panY;
+                if (y - LEVEL_HEIGHT > height) {
+                    break;
+                }
+                if (y + LEVEL_HEIGHT < 0) {
+                    continue;
+                }
+                int first = (1 << level) - 1;
+                double s = spacing(level);
+                int fromPosition = (int) Math.max(0, Math.floor(-panX / s));
+                long toPosition = Math.min((1L << level) - 1, (long) Math.floor((getWidth() - panX) / s));
+                for (long p = fromPosition; p <= toPosition && first + p < size; p++) {
+                    drawCellContents(g, heap, size, depth, (int) (first + p));
+                }
             }
+        }
 
-            // Draw the node circle
-            g2d.setColor(nodeColor);
-            g2d.fillOval(x - NODE_RADIUS, y - NODE_RADIUS, 2 * NODE_RADIUS, 2 * NODE_RADIUS);
-            g2d.setColor(Color.BLACK);
-            g2d.drawOval(x - NODE_RADIUS, y - NODE_RADIUS, 2 * NODE_RADIUS, 2 * NODE_RADIUS);
+        // Clears the cell of slot i and draws everything that falls inside it
+        private void redrawCell(Graphics2D g, Patient[] heap, int size, int depth, int i) {
+            Rectangle cell = cellBounds(i, depth);
+            if (!cell.intersects(0, 0, buffer.getWidth(), buffer.getHeight())) {
+                return;
+            }
+            Shape oldClip = g.getClip();
+            g.setClip(cell);
+            g.setColor(getBackground());
+            g.fill(cell);
+            if (i < size) {
+                drawCellContents(g, heap, size, depth, i);
+            }
+            g.setClip(oldClip);
+        }
+
+        // Cells tile the plane: each level's band ends where the next one starts, and a node's
+        // cell spans its share of the level width (which contains the edges to its children)
+        private Rectangle cellBounds(int i, int depth) {
+            double s = spacing(level(i));
+            double x = screenX(i);
+            double y = screenY(i);
+            int top = (int) Math.floor(y - LEVEL_HEIGHT + NODE_RADIUS + LABEL_HEIGHT);
+            int bottom = (int) Math.ceil(y + NODE_RADIUS + LABEL_HEIGHT + (level(i) == depth ? LEVEL_HEIGHT : 0));
+            int left = (int) Math.floor(x - s / 2);
+            int right = (int) Math.ceil(x + s / 2);
+            return new Rectangle(left, top, right - left, bottom - top);
+        }
+
+        private void drawCellContents(Graphics2D g, Patient[] heap, int size, int depth, int i) {
+            int x = (int) Math.round(screenX(i));
+            int y = (int) Math.round(screenY(i));
+            int level = level(i);
+            g.setColor(Color.BLACK);
+
+            // Edge from the parent and edges to children first, so they appear behind nodes
+            if (i > 0) {
+                int parent = (i - 1) / 2;
+                g.drawLine((int) Math.round(screenX(parent)), (int) Math.round(screenY(parent)) + NODE_RADIUS,
+                        x, y - NODE_RADIUS);
+            }
+            int left = 2 * i + 1;
+            if (level < depth) {
+                for (int child = left; child <= left + 1 && child < size; child++) {
+                    g.drawLine(x, y + NODE_RADIUS, (int) Math.round(screenX(child)), y + LEVEL_HEIGHT - NODE_RADIUS);
+                }
+            } else if (left < size) {
+                drawSummary(g, x, y, i, size);
+            }
+
+            Patient patient = heap[i];
+            g.setColor(severityColor(patient.getSeverityScore()));
+            g.fillOval(x - NODE_RADIUS, y - NODE_RADIUS, 2 * NODE_RADIUS, 2 * NODE_RADIUS);
+            g.setColor(Color.BLACK);
+            g.drawOval(x - NODE_RADIUS, y - NODE_RADIUS, 2 * NODE_RADIUS, 2 * NODE_RADIUS);
 
             // Draw severity score
-            g2d.setFont(severityFont);
+            g.setFont(SEVERITY_FONT);
             String severityText = Integer.toString(patient.getSeverityScore());
-            FontMetrics severityMetrics = g2d.getFontMetrics(severityFont);
-            int severityWidth = severityMetrics.stringWidth(severityText);
-            g2d.drawString(severityText, x - severityWidth / 2, y + 5);
-
-            // Draw patient name below node
-            g2d.setFont(nodeFont);
-            String displayName = patient.getName();
-            if (displayName.length() > 15) {
-                displayName = displayName.substring(0, 12) + "...";
+            FontMetrics severityMetrics = g.getFontMetrics(SEVERITY_FONT);
+            g.drawString(severityText, x - severityMetrics.stringWidth(severityText) / 2, y + 5);
+
+            // Draw patient name below node when there is room for it
+            if (spacing(level) >= MIN_LABEL_SPACING) {
+                g.setFont(NODE_FONT);
+                String displayName = patient.getName();
+                if (displayName.length() > 15) {
+                    displayName = displayName.substring(0, 12) + "...";
+                }
+                FontMetrics metrics = g.getFontMetrics(NODE_FONT);
+                g.drawString(displayName, x - metrics.stringWidth(displayName) / 2, y + NODE_RADIUS + 15);
             }
-            FontMetrics metrics = g2d.getFontMetrics(nodeFont);
-            int nameWidth = metrics.stringWidth(displayName);
-            g2d.drawString(displayName, x - nameWidth / 2, y + NODE_RADIUS + 15);
-
-            // Recursively draw children with reduced horizontal offset
-            if (leftChildIndex < heap.length && heap[leftChildIndex] != null) {
-                drawHeapNode(g2d, heap, leftChildIndex, x - horizontalOffset, y + LEVEL_HEIGHT,
-                        horizontalOffset / 2, level + 1);
+        }
+
+        // Collapsed subtree under slot i: a pill with the number of patients below it
+        private void drawSummary(Graphics2D g, int x, int y, int i, int size) {
+            String text = "+" + countDescendants(i, size);
+            g.setFont(SUMMARY_FONT);
+            FontMetrics metrics = g.getFontMetrics(SUMMARY_FONT);
+            int width = metrics.stringWidth(text) + 10;
+            int top = y + LEVEL_HEIGHT - NODE_RADIUS;
+            g.drawLine(x, y + NODE_RADIUS, x, top);
+            g.setColor(SUMMARY_COLOR);
+            g.fillRoundRect(x - width / 2, top, width, 18, 9, 9);
+            g.setColor(Color.BLACK);
+            g.drawRoundRect(x - width / 2, top, width, 18, 9, 9);
+            g.drawString(text, x - width / 2 + 5, top + 13);
+        }
+
+        // Slots below i, counted level by level without visiting them
+        private long countDescendants(int i, int size) {
+            long count = 0;
+            long first = 2L * i + 1;
+            long width = 2;
+            while (first < size) {
+                count += Math.min(first + width, size) - first;
+                first = 2 * first + 1;
+                width *= 2;
             }
+            return count;
+        }
 
-            if (rightChildIndex < heap.length && heap[rightChildIndex] != null) {
-                drawHeapNode(g2d, heap, rightChildIndex, x + horizontalOffset, y + LEVEL_HEIGHT,
-                        horizontalOffset / 2, level + 1);
+        private Color severityColor(int severity) {
+            if (severity <= 3) {
+                return LOW_SEVERITY;
+            } else if (severity <= 7) {
+                return MEDIUM_SEVERITY;
             }
+            return HIGH_SEVERITY;
         }
     }
 
     /**
-     * Extensions to the MinHeap and MaxHeap classes to provide access to internal data
-     * for visualization purposes.
+     * Engine the visualizer can drive and draw.
+     */
+    interface VisualizedEngine extends PriorityEngine {
+        HeapSnapshot snapshot();
+    }
+
+    /**
+     * Extensions to the MinHeap, MaxHeap and MinMaxHeap classes that publish consistent
+     * snapshots of their contents, so the panel never walks an array mid-sift.
      */
-    public static class PatientMinHeap extends PatientMinHeapOriginal {
+    public static class PatientMinHeap extends PatientMinHeapOriginal implements VisualizedEngine {
+        private final SnapshotPublisher snapshots = new SnapshotPublisher(new SnapshotPublisher.Source() {
+            @Override
+            public Patient[] array() {
+                return heap;
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        });
+
         public PatientMinHeap(int capacity) {
             super(capacity);
         }
 
-        public Patient[] getHeapArray() {
-            return heap;
+        public HeapSnapshot snapshot() {
+            return snapshots.snapshot();
         }
 
-        public int getSize() {
-            return size;
+        @Override
+        public void insert(Patient patient) {
+            snapshots.write(() -> super.insert(patient));
+        }
+
+        @Override
+        public Patient extractMin() {
+            return snapshots.write(() -> super.extractMin());
+        }
+
+        @Override
+        public int drainTo(Collection<? super Patient> target, int k) {
+            return snapshots.write(() -> super.drainTo(target, k));
+        }
+
+        @Override
+        public void insertAll(Collection<Patient> patients) {
+            snapshots.write(() -> super.insertAll(patients));
+        }
+
+        @Override
+        public void buildFrom(Collection<Patient> patients) {
+            snapshots.write(() -> super.buildFrom(patients));
+        }
+
+        @Override
+        public void parallelBuildFrom(Collection<Patient> patients, ForkJoinPool pool) {
+            snapshots.write(() -> super.parallelBuildFrom(patients, pool));
+        }
+
+        // Dropping cancelled patients off the root is a write
+        @Override
+        public Patient getMin() {
+            return snapshots.write(() -> super.getMin());
+        }
+
+        @Override
+        public boolean cancel(long patientId) {
+            return snapshots.write(() -> super.cancel(patientId));
+        }
+
+        @Override
+        public void compact() {
+            snapshots.write(() -> super.compact());
         }
     }
 
-    public static class PatientMaxHeap extends PatientMaxHeapOriginal {
+    public static class PatientMaxHeap extends PatientMaxHeapOriginal implements VisualizedEngine {
+        private final SnapshotPublisher snapshots = new SnapshotPublisher(new SnapshotPublisher.Source() {
+            @Override
+            public Patient[] array() {
+                return heap;
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        });
+
         public PatientMaxHeap(int capacity) {
             super(capacity);
         }
 
-        public Patient[] getHeapArray() {
-            return heap;
+        public HeapSnapshot snapshot() {
+            return snapshots.snapshot();
+        }
+
+        @Override
+        public void insert(Patient patient) {
+            snapshots.write(() -> super.insert(patient));
+        }
+
+        @Override
+        public Patient extractMax() {
+            return snapshots.write(() -> super.extractMax());
+        }
+
+        @Override
+        public int drainTo(Collection<? super Patient> target, int k) {
+            return snapshots.write(() -> super.drainTo(target, k));
+        }
+
+        @Override
+        public void insertAll(Collection<Patient> patients) {
+            snapshots.write(() -> super.insertAll(patients));
+        }
+
+        @Override
+        public void buildFrom(Collection<Patient> patients) {
+            snapshots.write(() -> super.buildFrom(patients));
+        }
+
+        @Override
+        public void parallelBuildFrom(Collection<Patient> patients, ForkJoinPool pool) {
+            snapshots.write(() -> super.parallelBuildFrom(patients, pool));
+        }
+
+        // Dropping cancelled patients off the root is a write
+        @Override
+        public Patient getMax() {
+            return snapshots.write(() -> super.getMax());
+        }
+
+        @Override
+        public boolean cancel(long patientId) {
+            return snapshots.write(() -> super.cancel(patientId));
+        }
+
+        @Override
+        public void compact() {
+            snapshots.write(() -> super.compact());
+        }
+    }
+
+    public static class PatientDoubleEndedHeap extends PatientMinMaxHeap implements VisualizedEngine {
+        private final SnapshotPublisher snapshots = new SnapshotPublisher(new SnapshotPublisher.Source() {
+            @Override
+            public Patient[] array() {
+                return heap;
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        });
+
+        public PatientDoubleEndedHeap(int capacity) {
+            super(capacity);
+        }
+
+        public HeapSnapshot snapshot() {
+            return snapshots.snapshot();
         }
 
         public int getSize() {
             return size;
         }
+
+        // As a single-ended engine it serves the emergency lane
+        @Override
+        public Patient peek() {
+            return getMax();
+        }
+
+        @Override
+        public Patient extract() {
+            return extractMax();
+        }
+
+        @Override
+        public Patient[] toArray() {
+            return snapshot().toArray();
+        }
+
+        @Override
+        public void insert(Patient patient) {
+            snapshots.write(() -> super.insert(patient));
+        }
+
+        @Override
+        public Patient extractMin() {
+            return snapshots.write(() -> super.extractMin());
+        }
+
+        @Override
+        public Patient extractMax() {
+            return snapshots.write(() -> super.extractMax());
+        }
+    }
+
+    /**
+     * Emergency-order adaptive engine for the visualizer. Whatever implementation is
+     * active, it is drawn as its patients in priority order, which is also a valid binary
+     * heap layout. The controls and the panel both run on the event thread, so a version
+     * counter is enough to rebuild the snapshot only after a change.
+     */
+    public static class AdaptiveEngine extends AdaptivePriorityEngine implements VisualizedEngine {
+        private long version;
+        private HeapSnapshot snapshot = new HeapSnapshot(0, new Patient[0]);
+
+        public AdaptiveEngine(int capacity, int window) {
+            super(PatientKeyedHeap.Order.MAX, capacity, window);
+        }
+
+        @Override
+        public HeapSnapshot snapshot() {
+            if (snapshot.getVersion() != version) {
+                Patient[] patients = toArray();
+                Arrays.sort(patients, PriorityEngine.comparator(PatientKeyedHeap.Order.MAX));
+                snapshot = new HeapSnapshot(version, patients);
+            }
+            return snapshot;
+        }
+
+        @Override
+        public void insert(Patient patient) {
+            super.insert(patient);
+            version++;
+        }
+
+        @Override
+        public Patient extract() {
+            Patient top = super.extract();
+            version++;
+            return top;
+        }
     }
 
     /**
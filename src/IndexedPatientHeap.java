@@ -0,0 +1,186 @@
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Binary patient heap that tracks every patient's position.
+ * insert returns a Handle whose index is kept current by siftUp/siftDown, so a
+ * re-triaged or departing patient can be found in O(1) and repositioned or removed
+ * in O(log n) instead of scanning the array and rebuilding the heap.
+ */
+class IndexedPatientHeap {
+
+    /**
+     * Reference to a queued patient. The index is maintained by the heap and is -1
+     * once the patient has been extracted or removed. getPatient returns the
+     * re-triaged copy after updateSeverity.
+     */
+    static final class Handle {
+        private Patient patient;
+        private int index;
+
+        private Handle(Patient patient) {
+            this.patient = patient;
+        }
+
+        public Patient getPatient() {
+            return patient;
+        }
+
+        public boolean isQueued() {
+            return index >= 0;
+        }
+    }
+
+    private final Comparator<? super Patient> priority; // negative means "comes out first"
+    private Handle[] heap;
+    private int size;
+
+    public IndexedPatientHeap(Comparator<? super Patient> priority, int capacity) {
+        this.priority = priority;
+        this.heap = new Handle[Math.max(capacity, 1)];
+        this.size = 0;
+    }
+
+    // Lowest severity first, like PatientMinHeapOriginal
+    public static IndexedPatientHeap minHeap(int capacity) {
+        return new IndexedPatientHeap(Comparator.naturalOrder(), capacity);
+    }
+
+    // Highest severity first, like PatientMaxHeapOriginal
+    public static IndexedPatientHeap maxHeap(int capacity) {
+        return new IndexedPatientHeap(Comparator.reverseOrder(), capacity);
+    }
+
+    // Checks if the heap is empty
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    // Returns the highest priority patient without removing it
+    public Patient peek() {
+        return size == 0 ? null : heap[0].patient;
+    }
+
+    // Inserts a new patient and returns the handle used to update or remove it later
+    public Handle insert(Patient patient) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, heap.length * 2);
+        }
+        Handle handle = new Handle(patient);
+        siftUp(size++, handle);
+        return handle;
+    }
+
+    // Removes and returns the highest priority patient
+    public Patient extract() {
+        if (size == 0) {
+            return null;
+        }
+        Patient top = heap[0].patient;
+        removeAt(0);
+        return top;
+    }
+
+    // Returns the handle of the highest priority patient without removing it
+    Handle peekHandle() {
+        return size == 0 ? null : heap[0];
+    }
+
+    // Copy of the handles in array order, for snapshots
+    Handle[] handlesInHeapOrder() {
+        return Arrays.copyOf(heap, size);
+    }
+
+    // Appends patients that are already in heap order (e.g. read back from a snapshot) without sifting
+    Handle[] restoreHeapOrder(Patient[] patients) {
+        Handle[] handles = new Handle[patients.length];
+        if (heap.length < size + patients.length) {
+            heap = Arrays.copyOf(heap, Math.max(heap.length * 2, size + patients.length));
+        }
+        for (int i = 0; i < patients.length; i++) {
+            handles[i] = new Handle(patients[i]);
+            place(size++, handles[i]);
+        }
+        return handles;
+    }
+
+    // Re-triages a queued patient and restores the heap property from its slot. The handle
+    // switches to a re-triaged copy; the Patient passed to insert is left untouched.
+    public void updateSeverity(Handle handle, int newScore) {
+        checkQueued(handle);
+        if (newScore != handle.patient.getSeverityScore()) {
+            handle.patient = handle.patient.retriaged(newScore);
+            fix(handle.index, handle);
+        }
+    }
+
+    // Removes a queued patient (e.g. left without being seen)
+    public void remove(Handle handle) {
+        checkQueued(handle);
+        removeAt(handle.index);
+    }
+
+    private void checkQueued(Handle handle) {
+        if (handle.index < 0 || handle.index >= size || heap[handle.index] != handle) {
+            throw new IllegalArgumentException("Patient is not in this queue: " + handle.patient);
+        }
+    }
+
+    private void removeAt(int i) {
+        Handle removed = heap[i];
+        size--;
+        Handle last = heap[size];
+        heap[size] = null;
+        if (i != size) {
+            fix(i, last);
+        }
+        removed.index = -1;
+    }
+
+    // Places handle into slot i, moving it up or down as its priority requires
+    private void fix(int i, Handle handle) {
+        if (i > 0 && priority.compare(handle.patient, heap[(i - 1) / 2].patient) < 0) {
+            siftUp(i, handle);
+        } else {
+            siftDown(i, handle);
+        }
+    }
+
+    private void siftUp(int i, Handle handle) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (priority.compare(heap[parent].patient, handle.patient) <= 0) {
+                break;
+            }
+            place(i, heap[parent]);
+            i = parent;
+        }
+        place(i, handle);
+    }
+
+    private void siftDown(int i, Handle handle) {
+        int half = size / 2;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && priority.compare(heap[right].patient, heap[child].patient) < 0) {
+                child = right;
+            }
+            if (priority.compare(handle.patient, heap[child].patient) <= 0) {
+                break;
+            }
+            place(i, heap[child]);
+            i = child;
+        }
+        place(i, handle);
+    }
+
+    private void place(int i, Handle handle) {
+        heap[i] = handle;
+        handle.index = i;
+    }
+}
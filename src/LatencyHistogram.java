@@ -0,0 +1,48 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with power-of-two buckets.
+ * Bucket b counts samples in [2^(b-1), 2^b) nanoseconds, so percentiles are
+ * reported as the bucket's upper bound and are accurate to within a factor of two.
+ */
+class LatencyHistogram {
+    private static final int BUCKETS = 64;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    public void record(long nanos) {
+        int bucket = nanos <= 0 ? 0 : Math.min(64 - Long.numberOfLeadingZeros(nanos), BUCKETS - 1);
+        counts.incrementAndGet(bucket);
+    }
+
+    public long getCount() {
+        long total = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            total += counts.get(b);
+        }
+        return total;
+    }
+
+    // Upper bound in nanoseconds of the bucket holding the q-th quantile (0 < q <= 1), or 0 if empty
+    public long percentile(double q) {
+        long total = getCount();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(q * total);
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += counts.get(b);
+            if (seen >= rank) {
+                return b == 0 ? 0 : 1L << b;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    public void reset() {
+        for (int b = 0; b < BUCKETS; b++) {
+            counts.set(b, 0);
+        }
+    }
+}
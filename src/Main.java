@@ -15,17 +15,82 @@
  * - (Bonus) A priority queue system that can balance between severity and wait time
  */
 
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Runs the headless ER simulation. Arguments are key=value pairs, for example
+ *
+ *   java Main engine=PatientKeyedHeap,PatientBucketQueue clinicians=12 arrivals=bursty count=1000000
+ *   java Main arrivals=trace trace=arrivals.csv service=lognormal mean=20
+ *
+ * engine       comma-separated ErSimulation.Engine names (default PatientMaxHeapOriginal)
+ * clinicians   number of clinicians (default 8)
+ * arrivals     poisson, bursty or trace (default poisson)
+ * rate         patients per hour, calm rate for bursty (default 20)
+ * surge        bursty surge rate in patients per hour (default 4 * rate)
+ * calm, burst  bursty mean phase lengths in minutes (default 240 and 30)
+ * count        synthetic arrivals to generate (default 1000000)
+ * trace        trace file of minute,severity[,name] lines
+ * service      exponential, lognormal or constant (default exponential)
+ * mean         mean (median for lognormal) visit minutes (default 20)
+ * sigma        lognormal spread (default 0.5)
+ * seed         random seed (default 42)
+ */
 public class Main {
     public static void main(String[] args) {
-//        PatientMaxHeapOriginal patientMaxHeapOriginal = new PatientMaxHeapOriginal(100);
-//      for(int i = 0; i < 100; i++) {
-//          patientMaxHeapOriginal.insert(new Patient("jasdf",(int)(Math.random()*10),0));
-//      }
-//      for(int i = 0; i < 10; i++) {
-//          System.out.println(patientMaxHeapOriginal.extractMax());
-//      }
-//
-//    System.out.println(patientMaxHeapOriginal.size);
-//    System.out.println("Done");
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected key=value: " + arg);
+            }
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+
+        int clinicians = Integer.parseInt(options.getOrDefault("clinicians", "8"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        ServiceTime service = serviceTime(options);
+
+        for (String engine : options.getOrDefault("engine", "PatientMaxHeapOriginal").split(",")) {
+            ErSimulation simulation = new ErSimulation(engine, service, clinicians, seed);
+            System.out.println(engine + ": " + simulation.run(arrivals(options, seed)));
+        }
+    }
+
+    // A fresh process per engine so every engine replays the same arrivals
+    private static ArrivalProcess arrivals(Map<String, String> options, long seed) {
+        double rate = Double.parseDouble(options.getOrDefault("rate", "20"));
+        long count = Long.parseLong(options.getOrDefault("count", "1000000"));
+        switch (options.getOrDefault("arrivals", "poisson")) {
+            case "poisson":
+                return ArrivalProcess.poisson(rate, count, seed);
+            case "bursty":
+                return ArrivalProcess.bursty(rate, Double.parseDouble(options.getOrDefault("surge", String.valueOf(4 * rate))),
+                        Double.parseDouble(options.getOrDefault("calm", "240")),
+                        Double.parseDouble(options.getOrDefault("burst", "30")), count, seed);
+            case "trace":
+                if (!options.containsKey("trace")) {
+                    throw new IllegalArgumentException("arrivals=trace needs trace=<file>");
+                }
+                return ArrivalProcess.trace(Paths.get(options.get("trace")));
+            default:
+                throw new IllegalArgumentException("Unknown arrival process: " + options.get("arrivals"));
+        }
+    }
+
+    private static ServiceTime serviceTime(Map<String, String> options) {
+        double mean = Double.parseDouble(options.getOrDefault("mean", "20"));
+        switch (options.getOrDefault("service", "exponential")) {
+            case "exponential":
+                return ServiceTime.exponential(mean);
+            case "lognormal":
+                return ServiceTime.logNormal(mean, Double.parseDouble(options.getOrDefault("sigma", "0.5")));
+            case "constant":
+                return ServiceTime.constant(mean);
+            default:
+                throw new IllegalArgumentException("Unknown service time distribution: " + options.get("service"));
+        }
     }
-}
\ No newline at end of file
+}
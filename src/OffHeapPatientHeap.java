@@ -0,0 +1,202 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Patient heap stored off the Java heap, for queues of millions of referrals.
+ * Entries are fixed-width 24-byte records in a direct ByteBuffer:
+ * [long key][int severity][int waitTime][int nameId][int unused], where the key is
+ * packed as in PatientKeyedHeap so the smallest key always comes out first. Names
+ * are interned into a reference-counted on-heap table, and an id is recycled once its
+ * last patient is extracted. Repeated names add no objects for the garbage collector
+ * to trace, and the table only ever holds names that are still queued. A Patient is
+ * only materialized on peek/extract.
+ * Capacity is limited to what one direct buffer can address (about 89 million entries).
+ */
+class OffHeapPatientHeap {
+    private static final int RECORD_BYTES = 24;
+    private static final int KEY = 0;
+    private static final int SEVERITY = 8;
+    private static final int WAIT_TIME = 12;
+    private static final int NAME_ID = 16;
+    private static final int MAX_ENTRIES = Integer.MAX_VALUE / RECORD_BYTES;
+
+    private final PatientKeyedHeap.Order order;
+    private final Map<String, Integer> nameIds = new HashMap<>();
+    private final List<String> names = new ArrayList<>(); // null at recycled ids
+    private int[] nameRefs = new int[16];                  // queued patients per name id
+    private int[] freeNameIds = new int[16];
+    private int freeNameCount;
+    private ByteBuffer records;
+    private int size;
+    private long nextSequence;
+
+    public OffHeapPatientHeap(PatientKeyedHeap.Order order, int capacity) {
+        if (capacity > MAX_ENTRIES) {
+            throw new IllegalArgumentException("Capacity must be at most " + MAX_ENTRIES + ": " + capacity);
+        }
+        this.order = order;
+        this.records = allocate(Math.max(capacity, 1));
+        this.size = 0;
+    }
+
+    // Checks if the heap is empty
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    // Number of distinct names currently queued
+    public int getNameCount() {
+        return nameIds.size();
+    }
+
+    // Materializes the highest priority patient without removing it
+    public Patient peek() {
+        return size == 0 ? null : materialize(0);
+    }
+
+    // Inserts a new patient into the heap
+    public void insert(Patient patient) {
+        if (size == capacity()) {
+            grow();
+        }
+        long key = PatientKeyedHeap.packKey(order, patient.getSeverityScore(), nextSequence++);
+        siftUp(size, key, patient.getSeverityScore(), patient.getWaitTime(), intern(patient.getName()));
+        size++;
+    }
+
+    // Removes the highest priority patient and materializes it
+    public Patient extract() {
+        if (size == 0) {
+            return null;
+        }
+        Patient top = materialize(0);
+        release(records.getInt(NAME_ID));
+        size--;
+        if (size != 0) {
+            int last = size * RECORD_BYTES;
+            siftDown(0, records.getLong(last + KEY), records.getInt(last + SEVERITY),
+                    records.getInt(last + WAIT_TIME), records.getInt(last + NAME_ID));
+        }
+        return top;
+    }
+
+    private Patient materialize(int i) {
+        int at = i * RECORD_BYTES;
+        return new Patient(names.get(records.getInt(at + NAME_ID)), records.getInt(at + SEVERITY),
+                records.getInt(at + WAIT_TIME));
+    }
+
+    // Returns the id for name, taking one reference to it
+    private int intern(String name) {
+        Integer existing = nameIds.get(name);
+        if (existing != null) {
+            nameRefs[existing]++;
+            return existing;
+        }
+        int id;
+        if (freeNameCount > 0) {
+            id = freeNameIds[--freeNameCount];
+            names.set(id, name);
+        } else {
+            id = names.size();
+            names.add(name);
+            if (id == nameRefs.length) {
+                nameRefs = Arrays.copyOf(nameRefs, id * 2);
+            }
+        }
+        nameRefs[id] = 1;
+        nameIds.put(name, id);
+        return id;
+    }
+
+    // Drops one reference to a name id, recycling the id when no queued patient uses it
+    private void release(int id) {
+        if (--nameRefs[id] != 0) {
+            return;
+        }
+        nameIds.remove(names.get(id));
+        names.set(id, null);
+        if (freeNameCount == freeNameIds.length) {
+            freeNameIds = Arrays.copyOf(freeNameIds, freeNameCount * 2);
+        }
+        freeNameIds[freeNameCount++] = id;
+    }
+
+    private long keyAt(int i) {
+        return records.getLong(i * RECORD_BYTES + KEY);
+    }
+
+    // Moves the hole at i up until key fits, then writes the record there
+    private void siftUp(int i, long key, int severity, int waitTime, int nameId) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keyAt(parent) <= key) {
+                break;
+            }
+            copy(parent, i);
+            i = parent;
+        }
+        write(i, key, severity, waitTime, nameId);
+    }
+
+    // Moves the hole at i down until key fits, then writes the record there
+    private void siftDown(int i, long key, int severity, int waitTime, int nameId) {
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && keyAt(right) < keyAt(child)) {
+                child = right;
+            }
+            if (key <= keyAt(child)) {
+                break;
+            }
+            copy(child, i);
+            i = child;
+        }
+        write(i, key, severity, waitTime, nameId);
+    }
+
+    private void copy(int from, int to) {
+        int src = from * RECORD_BYTES;
+        int dst = to * RECORD_BYTES;
+        records.putLong(dst, records.getLong(src));
+        records.putLong(dst + 8, records.getLong(src + 8));
+        records.putLong(dst + 16, records.getLong(src + 16));
+    }
+
+    private void write(int i, long key, int severity, int waitTime, int nameId) {
+        int at = i * RECORD_BYTES;
+        records.putLong(at + KEY, key);
+        records.putInt(at + SEVERITY, severity);
+        records.putInt(at + WAIT_TIME, waitTime);
+        records.putInt(at + NAME_ID, nameId);
+    }
+
+    private int capacity() {
+        return records.capacity() / RECORD_BYTES;
+    }
+
+    private void grow() {
+        int current = capacity();
+        if (current == MAX_ENTRIES) {
+            throw new IllegalStateException("Off-heap queue is full at " + MAX_ENTRIES + " entries");
+        }
+        ByteBuffer bigger = allocate((int) Math.min((long) current * 2, MAX_ENTRIES));
+        bigger.put(records.duplicate().clear().limit(size * RECORD_BYTES));
+        records = bigger;
+    }
+
+    private static ByteBuffer allocate(int entries) {
+        return ByteBuffer.allocateDirect(entries * RECORD_BYTES).order(ByteOrder.nativeOrder());
+    }
+}
@@ -0,0 +1,99 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork-join building blocks for the array heaps.
+ * heapify splits the tree into its two subtrees, heapifies them in parallel (the
+ * subtrees share no slots), and then sifts the root of each split down; splitting
+ * stops once a subtree is small enough to run Floyd's heapify on one thread.
+ * sortedCopy leaves the heap alone and sorts a copy with Arrays.parallelSort.
+ * These run without the heaps' comparison/swap counters, which are not thread-safe.
+ */
+final class ParallelHeaps {
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 14; // subtree size worth a task of its own
+
+    private ParallelHeaps() {
+    }
+
+    // Turns heap[0, size) into a heap under priority (negative means "closer to the root")
+    static void heapify(Patient[] heap, int size, Comparator<? super Patient> priority, ForkJoinPool pool) {
+        if (size > 1) {
+            pool.invoke(new HeapifyTask(heap, size, priority, 0, 0));
+        }
+    }
+
+    // Patients from heap[0, size) in priority order, sorted in parallel; heap is not modified
+    static Patient[] sortedCopy(Patient[] heap, int size, Comparator<? super Patient> priority) {
+        Patient[] copy = Arrays.copyOf(heap, size);
+        Arrays.parallelSort(copy, priority);
+        return copy;
+    }
+
+    private static final class HeapifyTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Patient[] heap;
+        private final int size;
+        private final Comparator<? super Patient> priority;
+        private final int root;
+        private final int depth;
+
+        HeapifyTask(Patient[] heap, int size, Comparator<? super Patient> priority, int root, int depth) {
+            this.heap = heap;
+            this.size = size;
+            this.priority = priority;
+            this.root = root;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            long left = 2L * root + 1;
+            if (left >= size) {
+                return;
+            }
+            if ((size >>> depth) <= SEQUENTIAL_THRESHOLD) {
+                heapifySubtree();
+                return;
+            }
+            invokeAll(new HeapifyTask(heap, size, priority, (int) left, depth + 1),
+                    new HeapifyTask(heap, size, priority, (int) left + 1, depth + 1));
+            siftDown(heap, size, priority, root);
+        }
+
+        // Floyd's heapify over the subtree at root: its levels are contiguous slot ranges, deepest first
+        private void heapifySubtree() {
+            int levels = 0;
+            while ((root + 1L << levels) - 1 < size) {
+                levels++;
+            }
+            for (int level = levels - 1; level >= 0; level--) {
+                long first = (root + 1L << level) - 1;
+                long last = Math.min(first + (1L << level) - 1, size - 1);
+                for (long i = last; i >= first; i--) {
+                    siftDown(heap, size, priority, (int) i);
+                }
+            }
+        }
+    }
+
+    private static void siftDown(Patient[] heap, int size, Comparator<? super Patient> priority, int i) {
+        Patient patient = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && priority.compare(heap[right], heap[child]) < 0) {
+                child = right;
+            }
+            if (priority.compare(patient, heap[child]) <= 0) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = patient;
+    }
+}
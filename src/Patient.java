@@ -1,7 +1,12 @@
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Patient class representing a hospital patient
  */
 class Patient implements Comparable<Patient> {
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+
+    private final long id; // unique per admitted patient (re-triaged copies keep it), used to cancel a queued patient
     private String name;
     private int severityScore; // 1-10 (10 most severe)
     private int waitTime; // minutes
@@ -10,6 +15,18 @@ class Patient implements Comparable<Patient> {
         this.name = name;
         this.severityScore = severityScore;
         this.waitTime = waitTime;
+        this.id = NEXT_ID.getAndIncrement();
+    }
+
+    private Patient(long id, String name, int severityScore, int waitTime) {
+        this.id = id;
+        this.name = name;
+        this.severityScore = severityScore;
+        this.waitTime = waitTime;
+    }
+
+    public long getId() {
+        return id;
     }
 
     public String getName() {
@@ -28,6 +45,12 @@ class Patient implements Comparable<Patient> {
         waitTime++;
     }
 
+    // Re-triage: a copy with the new score and the same id. The score of a Patient never
+    // changes, so every queue already holding this one keeps a valid order.
+    public Patient retriaged(int severityScore) {
+        return new Patient(id, name, severityScore, waitTime);
+    }
+
     // Default comparison by severity
     @Override
     public int compareTo(Patient other) {
@@ -0,0 +1,96 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bucket (radix) priority queue for patients.
+ * Severity is bounded to 1-10, so each severity gets its own FIFO bucket and a
+ * bitmask of non-empty buckets finds the lowest or highest severity in O(1).
+ * Patients with the same severity come out in arrival order.
+ */
+class PatientBucketQueue {
+    static final int MIN_SEVERITY = 1;
+    static final int MAX_SEVERITY = 10;
+
+    private final ArrayDeque<Patient>[] buckets;
+    private int occupied; // bit s is set when bucket s is non-empty
+    private int size;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public PatientBucketQueue() {
+        this.buckets = new ArrayDeque[MAX_SEVERITY + 1];
+        for (int s = MIN_SEVERITY; s <= MAX_SEVERITY; s++) {
+            buckets[s] = new ArrayDeque<>();
+        }
+        this.occupied = 0;
+        this.size = 0;
+    }
+
+    // Checks if the queue is empty
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    // Inserts a new patient at the back of its severity bucket
+    public void insert(Patient patient) {
+        int severity = patient.getSeverityScore();
+        if (severity < MIN_SEVERITY || severity > MAX_SEVERITY) {
+            throw new IllegalArgumentException("Severity must be between " + MIN_SEVERITY + " and "
+                    + MAX_SEVERITY + ": " + severity);
+        }
+        buckets[severity].addLast(patient);
+        occupied |= 1 << severity;
+        size++;
+    }
+
+    // Returns the longest-waiting patient with the lowest severity without removing it
+    public Patient getMin() {
+        return size == 0 ? null : buckets[lowestSeverity()].peekFirst();
+    }
+
+    // Returns the longest-waiting patient with the highest severity without removing it
+    public Patient getMax() {
+        return size == 0 ? null : buckets[highestSeverity()].peekFirst();
+    }
+
+    // Removes and returns the longest-waiting patient with the lowest severity
+    public Patient extractMin() {
+        return size == 0 ? null : poll(lowestSeverity());
+    }
+
+    // Removes and returns the longest-waiting patient with the highest severity
+    public Patient extractMax() {
+        return size == 0 ? null : poll(highestSeverity());
+    }
+
+    // Every queued patient, lowest severity first and in arrival order within a severity
+    public Patient[] toArray() {
+        List<Patient> result = new ArrayList<>(size);
+        for (int s = MIN_SEVERITY; s <= MAX_SEVERITY; s++) {
+            result.addAll(buckets[s]);
+        }
+        return result.toArray(new Patient[0]);
+    }
+
+    private Patient poll(int severity) {
+        ArrayDeque<Patient> bucket = buckets[severity];
+        Patient patient = bucket.pollFirst();
+        if (bucket.isEmpty()) {
+            occupied &= ~(1 << severity);
+        }
+        size--;
+        return patient;
+    }
+
+    private int lowestSeverity() {
+        return Integer.numberOfTrailingZeros(occupied);
+    }
+
+    private int highestSeverity() {
+        return 31 - Integer.numberOfLeadingZeros(occupied);
+    }
+}
@@ -0,0 +1,125 @@
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * d-ary patient heap with a configurable arity (typically 4 or 8).
+ * A node's children sit next to each other at d*i+1 .. d*i+d, so picking the best
+ * child scans one contiguous run of the array, and the tree is log_d(n) deep
+ * instead of log_2(n). Sifting is iterative and moves a hole instead of swapping.
+ */
+class PatientDaryHeap implements PriorityEngine {
+    private final int arity;
+    private final Comparator<? super Patient> priority; // negative means "comes out first"
+    private Patient[] heap;
+    private int size;
+
+    public PatientDaryHeap(int arity, Comparator<? super Patient> priority, int capacity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("Arity must be at least 2: " + arity);
+        }
+        this.arity = arity;
+        this.priority = priority;
+        this.heap = new Patient[Math.max(capacity, 1)];
+        this.size = 0;
+    }
+
+    // Lowest severity first, like PatientMinHeapOriginal
+    public static PatientDaryHeap minHeap(int arity, int capacity) {
+        return new PatientDaryHeap(arity, Comparator.naturalOrder(), capacity);
+    }
+
+    // Highest severity first, like PatientMaxHeapOriginal
+    public static PatientDaryHeap maxHeap(int arity, int capacity) {
+        return new PatientDaryHeap(arity, Comparator.reverseOrder(), capacity);
+    }
+
+    // Returns the index of the parent node
+    private int parent(int i) {
+        return (i - 1) / arity;
+    }
+
+    // Returns the index of the first child; the others follow it
+    private int firstChild(int i) {
+        return arity * i + 1;
+    }
+
+    // Checks if the heap is empty
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getArity() {
+        return arity;
+    }
+
+    // Returns the highest priority patient without removing it
+    public Patient peek() {
+        return size == 0 ? null : heap[0];
+    }
+
+    // Copy of the contents in heap (array) order
+    public Patient[] toArray() {
+        return Arrays.copyOf(heap, size);
+    }
+
+    // Inserts a new patient into the heap
+    public void insert(Patient patient) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, heap.length * 2);
+        }
+        siftUp(size, patient);
+        size++;
+    }
+
+    // Removes and returns the highest priority patient
+    public Patient extract() {
+        if (size == 0) {
+            return null;
+        }
+        Patient top = heap[0];
+        size--;
+        Patient last = heap[size];
+        heap[size] = null;
+        if (size != 0) {
+            siftDown(0, last);
+        }
+        return top;
+    }
+
+    // Moves the hole at i up until patient fits above its parent, then fills it
+    private void siftUp(int i, Patient patient) {
+        while (i > 0) {
+            int p = parent(i);
+            if (priority.compare(heap[p], patient) <= 0) {
+                break;
+            }
+            heap[i] = heap[p];
+            i = p;
+        }
+        heap[i] = patient;
+    }
+
+    // Moves the hole at i down to the best child until patient fits, then fills it
+    private void siftDown(int i, Patient patient) {
+        int child;
+        while ((child = firstChild(i)) < size) {
+            int end = Math.min(child + arity, size);
+            int best = child;
+            for (int c = child + 1; c < end; c++) {
+                if (priority.compare(heap[c], heap[best]) < 0) {
+                    best = c;
+                }
+            }
+            if (priority.compare(patient, heap[best]) <= 0) {
+                break;
+            }
+            heap[i] = heap[best];
+            i = best;
+        }
+        heap[i] = patient;
+    }
+}
@@ -0,0 +1,267 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Bulk loader for intake batch files.
+ * Each line is {@code name,severity[,waitTime]}; blank lines and lines starting with
+ * '#' are skipped. The file is memory-mapped in windows of up to WINDOW_BYTES and
+ * parsed from the mapped bytes without building a String per line: numbers are
+ * decoded in place and names are looked up by their bytes in an interning table, so
+ * a repeated name costs no allocation and only the Patient itself is created per
+ * record. Records reach the sink in chunks, e.g. a heap's insertAll, which merges a
+ * chunk without sifting each patient up separately.
+ */
+class PatientIngest {
+    static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+    private static final long WINDOW_BYTES = 1L << 30;
+    private static final int BLOCK_BYTES = 1 << 20;
+
+    private final int chunkSize;
+    private final long windowBytes;
+
+    // Interned names: open addressing on the hash of the name's UTF-8 bytes
+    private byte[][] nameBytes = new byte[1024][];
+    private String[] names = new String[1024];
+    private int[] nameHashes = new int[1024];
+    private int nameCount;
+
+    private byte[] block = new byte[BLOCK_BYTES]; // parse buffer, grown for records longer than it
+    private long records;
+
+    public PatientIngest() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    public PatientIngest(int chunkSize) {
+        this(chunkSize, WINDOW_BYTES);
+    }
+
+    // Smaller windows are only useful to exercise records that straddle two windows
+    PatientIngest(int chunkSize, long windowBytes) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        this.windowBytes = windowBytes;
+    }
+
+    // Loads the file into a min-heap, merging each chunk with insertAll
+    public long ingest(Path file, PatientMinHeapOriginal heap) {
+        return ingest(file, heap::insertAll);
+    }
+
+    // Loads the file into a max-heap, merging each chunk with insertAll
+    public long ingest(Path file, PatientMaxHeapOriginal heap) {
+        return ingest(file, heap::insertAll);
+    }
+
+    /**
+     * Parses the whole file, passing full chunks (and a final partial one) to sink.
+     * The list is reused between calls, so the sink must not keep it.
+     * Returns the number of records read from this file.
+     */
+    public long ingest(Path file, Consumer<List<Patient>> sink) {
+        long before = records;
+        Batch batch = new Batch(file, sink);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            long position = 0;
+            while (position < length) {
+                int windowLength = (int) Math.min(windowBytes, length - position);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, windowLength);
+                boolean lastWindow = position + windowLength == length;
+                int offset = 0;
+                while (offset < windowLength) {
+                    // Parsing runs on a copied block; bulk copies out of the mapping are far cheaper than get(i)
+                    int n = Math.min(block.length, windowLength - offset);
+                    window.get(offset, block, 0, n);
+                    int consumed = parseLines(n, lastWindow && offset + n == windowLength, batch);
+                    if (consumed == 0) {
+                        if (offset + n == windowLength) {
+                            break; // the record continues in the next window
+                        }
+                        block = new byte[block.length * 2];
+                        continue;
+                    }
+                    offset += consumed;
+                }
+                if (offset == 0 && !lastWindow) {
+                    throw new IllegalArgumentException(file + ":" + batch.lineNumber + ": record longer than the mapping window");
+                }
+                position += offset;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        batch.flush();
+        return records - before;
+    }
+
+    // Parses every complete line in block[0, length) and returns how many bytes they used
+    private int parseLines(int length, boolean endOfFile, Batch batch) {
+        int lineStart = 0;
+        while (lineStart < length) {
+            int lineEnd = indexOf((byte) '\n', lineStart, length);
+            if (lineEnd < 0) {
+                if (!endOfFile) {
+                    break;
+                }
+                lineEnd = length;
+            }
+            Patient patient = parse(lineStart, lineEnd, batch);
+            batch.lineNumber++;
+            lineStart = Math.min(lineEnd + 1, length);
+            if (patient != null) {
+                records++;
+                batch.add(patient);
+            }
+        }
+        return lineStart;
+    }
+
+    // Chunk being filled for one ingest call
+    private final class Batch {
+        final Path file;
+        final Consumer<List<Patient>> sink;
+        final List<Patient> chunk = new ArrayList<>(chunkSize);
+        long lineNumber = 1;
+
+        Batch(Path file, Consumer<List<Patient>> sink) {
+            this.file = file;
+            this.sink = sink;
+        }
+
+        void add(Patient patient) {
+            chunk.add(patient);
+            if (chunk.size() == chunkSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (!chunk.isEmpty()) {
+                sink.accept(chunk);
+                chunk.clear();
+            }
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(file + ":" + lineNumber + ": " + message);
+        }
+    }
+
+    // Records read over the lifetime of this ingester
+    public long getRecordCount() {
+        return records;
+    }
+
+    // Distinct names interned so far
+    public int getNameCount() {
+        return nameCount;
+    }
+
+    // Parses block[start, end), or returns null for a blank or comment line
+    private Patient parse(int start, int end, Batch batch) {
+        if (end > start && block[end - 1] == '\r') {
+            end--;
+        }
+        if (start == end || block[start] == '#') {
+            return null;
+        }
+        int comma = indexOf((byte) ',', start, end);
+        if (comma < 0) {
+            throw batch.error("expected name,severity[,waitTime]");
+        }
+        int second = indexOf((byte) ',', comma + 1, end);
+        int severity = parseInt(comma + 1, second < 0 ? end : second, batch);
+        int waitTime = second < 0 ? 0 : parseInt(second + 1, end, batch);
+        return new Patient(intern(start, comma), severity, waitTime);
+    }
+
+    private int indexOf(byte b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (block[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int parseInt(int start, int end, Batch batch) {
+        while (start < end && block[start] == ' ') {
+            start++;
+        }
+        while (end > start && block[end - 1] == ' ') {
+            end--;
+        }
+        boolean negative = start < end && block[start] == '-';
+        int i = negative ? start + 1 : start;
+        if (i == end || end - i > 9) {
+            throw batch.error("bad number");
+        }
+        int value = 0;
+        for (; i < end; i++) {
+            int digit = block[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw batch.error("bad number");
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    // Returns the shared String for the name in [start, end), creating it only on first sight
+    private String intern(int start, int end) {
+        int length = end - start;
+        int hash = 1;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + block[i];
+        }
+        int mask = names.length - 1;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (names[slot] != null) {
+            if (nameHashes[slot] == hash && Arrays.equals(nameBytes[slot], 0, nameBytes[slot].length, block, start, end)) {
+                return names[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        String name = new String(block, start, length, StandardCharsets.UTF_8);
+        nameBytes[slot] = Arrays.copyOfRange(block, start, end);
+        names[slot] = name;
+        nameHashes[slot] = hash;
+        if (++nameCount * 2 > names.length) {
+            growNames();
+        }
+        return name;
+    }
+
+    private void growNames() {
+        byte[][] oldBytes = nameBytes;
+        String[] oldNames = names;
+        int[] oldHashes = nameHashes;
+        int capacity = oldNames.length * 2;
+        nameBytes = new byte[capacity][];
+        names = new String[capacity];
+        nameHashes = new int[capacity];
+        for (int i = 0; i < oldNames.length; i++) {
+            if (oldNames[i] != null) {
+                int slot = (oldHashes[i] ^ (oldHashes[i] >>> 16)) & (capacity - 1);
+                while (names[slot] != null) {
+                    slot = (slot + 1) & (capacity - 1);
+                }
+                nameBytes[slot] = oldBytes[i];
+                names[slot] = oldNames[i];
+                nameHashes[slot] = oldHashes[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,198 @@
+import java.util.Arrays;
+
+/**
+ * Struct-of-arrays patient heap.
+ * Each entry's priority is packed into a single long (severity in the high bits,
+ * arrival sequence in the low bits) and sifting only moves entries of the primitive
+ * keys[] and slots[] arrays; patients stay where they were stored.
+ * The heap always surfaces the smallest key, so the min/max direction is chosen by
+ * how severity is encoded, and ties are broken by arrival order.
+ */
+class PatientKeyedHeap implements PriorityEngine {
+    enum Order { MIN, MAX }
+
+    private static final int SEQUENCE_BITS = 40;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    // The signed rank gets the 24 bits above the sequence, so severities are limited to +/-(2^23 - 1)
+    static final int MAX_SEVERITY = (1 << (63 - SEQUENCE_BITS)) - 1;
+    static final int MIN_SEVERITY = -MAX_SEVERITY;
+
+    private final Order order;
+    private long[] keys;       // heap-ordered packed keys
+    private int[] slots;       // slots[i] is where the patient for keys[i] lives in patients[]
+    private Patient[] patients;
+    private int[] freeSlots;   // stack of unused indices into patients[]
+    private int freeCount;
+    private int size;
+    private long nextSequence;
+
+    public PatientKeyedHeap(Order order, int capacity) {
+        this.order = order;
+        int initial = Math.max(capacity, 1);
+        this.keys = new long[initial];
+        this.slots = new int[initial];
+        this.patients = new Patient[initial];
+        this.freeSlots = new int[initial];
+        for (int i = 0; i < initial; i++) {
+            freeSlots[i] = initial - 1 - i;
+        }
+        this.freeCount = initial;
+        this.size = 0;
+        this.nextSequence = 0;
+    }
+
+    // Drop-in replacement for PatientMinHeapOriginal
+    public static PatientKeyedHeap minHeap(int capacity) {
+        return new PatientKeyedHeap(Order.MIN, capacity);
+    }
+
+    // Drop-in replacement for PatientMaxHeapOriginal
+    public static PatientKeyedHeap maxHeap(int capacity) {
+        return new PatientKeyedHeap(Order.MAX, capacity);
+    }
+
+    // Checks if the heap is empty
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+
+    // Returns the highest priority patient without removing it
+    public Patient peek() {
+        return size == 0 ? null : patients[slots[0]];
+    }
+
+    // Copy of the contents in heap (array) order
+    public Patient[] toArray() {
+        Patient[] result = new Patient[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = patients[slots[i]];
+        }
+        return result;
+    }
+
+    // Inserts a new patient; no allocation unless the arrays have to grow
+    public void insert(Patient patient) {
+        if (size == keys.length) {
+            grow();
+        }
+        long key = encode(patient.getSeverityScore());
+        int slot = freeSlots[--freeCount];
+        patients[slot] = patient;
+        siftUp(size, key, slot);
+        size++;
+    }
+
+    // Removes and returns the highest priority patient
+    public Patient extract() {
+        if (size == 0) {
+            return null;
+        }
+        int slot = slots[0];
+        Patient top = patients[slot];
+        patients[slot] = null;
+        freeSlots[freeCount++] = slot;
+        size--;
+        if (size != 0) {
+            siftDown(0, keys[size], slots[size]);
+        }
+        return top;
+    }
+
+    // PatientMinHeapOriginal/PatientMaxHeapOriginal names, so either can be swapped for this
+    // class without changing callers; each is only valid for the matching order
+    public Patient getMin() {
+        requireOrder(Order.MIN, "getMin");
+        return peek();
+    }
+
+    public Patient extractMin() {
+        requireOrder(Order.MIN, "extractMin");
+        return extract();
+    }
+
+    public Patient getMax() {
+        requireOrder(Order.MAX, "getMax");
+        return peek();
+    }
+
+    public Patient extractMax() {
+        requireOrder(Order.MAX, "extractMax");
+        return extract();
+    }
+
+    private void requireOrder(Order expected, String method) {
+        if (order != expected) {
+            throw new IllegalStateException(method + " called on a " + order + " heap");
+        }
+    }
+
+    private long encode(int severity) {
+        return packKey(order, severity, nextSequence++);
+    }
+
+    // Packs severity and arrival sequence so that a smaller key means higher priority
+    static long packKey(Order order, int severity, long sequence) {
+        if (severity < MIN_SEVERITY || severity > MAX_SEVERITY) {
+            throw new IllegalArgumentException("Severity must be between " + MIN_SEVERITY + " and "
+                    + MAX_SEVERITY + ": " + severity);
+        }
+        long rank = order == Order.MIN ? severity : -(long) severity;
+        return (rank << SEQUENCE_BITS) | (sequence & SEQUENCE_MASK);
+    }
+
+    // Moves the hole at i up until key fits, then stores key/slot there
+    private void siftUp(int i, long key, int slot) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            long parentKey = keys[parent];
+            if (parentKey <= key) {
+                break;
+            }
+            keys[i] = parentKey;
+            slots[i] = slots[parent];
+            i = parent;
+        }
+        keys[i] = key;
+        slots[i] = slot;
+    }
+
+    // Moves the hole at i down until key fits, then stores key/slot there
+    private void siftDown(int i, long key, int slot) {
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && keys[right] < keys[child]) {
+                child = right;
+            }
+            if (key <= keys[child]) {
+                break;
+            }
+            keys[i] = keys[child];
+            slots[i] = slots[child];
+            i = child;
+        }
+        keys[i] = key;
+        slots[i] = slot;
+    }
+
+    private void grow() {
+        int oldCapacity = keys.length;
+        int newCapacity = oldCapacity * 2;
+        keys = Arrays.copyOf(keys, newCapacity);
+        slots = Arrays.copyOf(slots, newCapacity);
+        patients = Arrays.copyOf(patients, newCapacity);
+        freeSlots = Arrays.copyOf(freeSlots, newCapacity);
+        for (int s = newCapacity - 1; s >= oldCapacity; s--) {
+            freeSlots[freeCount++] = s;
+        }
+    }
+}
@@ -1,16 +1,35 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * Renamed original PatientMinHeap to avoid conflicts.
  * Students should implement this class by completing the TODO sections.
  */
-class PatientMinHeapOriginal {
+class PatientMinHeapOriginal implements PriorityEngine {
     protected Patient[] heap;
     protected int size;
     protected int capacity;
+    protected int minCapacity;
+    protected long comparisons; // running totals, also kept while no metrics are attached
+    protected long swaps;
+    protected int modCount; // bumped by every change, so open streams fail fast
+    private final Tombstones tombstones = new Tombstones();
+    private HeapMetrics metrics;
+    private long comparisonsAtStart;
+    private long swapsAtStart;
 
     public PatientMinHeapOriginal(int capacity) {
-        this.capacity = capacity;
+        this.minCapacity = Math.max(capacity, 1);
+        this.capacity = minCapacity;
         this.size = 0;
-        this.heap = new Patient[capacity];
+        this.heap = new Patient[minCapacity];
     }
 
     // Returns the index of the parent node
@@ -28,55 +47,356 @@ class PatientMinHeapOriginal {
         return (2*i) + 2;
     }
 
-    // Checks if the heap is empty
+    // Checks if the heap is empty, not counting cancelled patients
     public boolean isEmpty() {
-       return heap.length == 0;
+        return size == tombstones.getDeadEntries();
+    }
+
+    // Number of queued patients, not counting cancelled ones
+    public int getSize() {
+        return size - tombstones.getDeadEntries();
+    }
+
+    // PriorityEngine names for getMin/extractMin
+    public Patient peek() {
+        return getMin();
+    }
+
+    public Patient extract() {
+        return extractMin();
+    }
+
+    // Every queued patient in heap (array) order
+    public Patient[] toArray() {
+        compactIfCancelled();
+        return Arrays.copyOf(heap, size);
     }
 
     // Returns the minimum patient without removing it
     public Patient getMin() {
-      return heap[0];
+        dropCancelledRoot();
+        return heap[0];
     }
 
     // Inserts a new patient into the heap
     public void insert(Patient patient) {
+        long start = beginOperation();
+        ensureCapacity(size + 1);
+        modCount++;
         heap[size] = patient;
+        tombstones.added(patient);
         if(size != 0){
             siftUp(size);
         }
         size++;
+        if (metrics != null) {
+            metrics.recordInsert(patient, System.nanoTime() - start, comparisons - comparisonsAtStart,
+                    swaps - swapsAtStart, size);
+        }
     }
 
 
-    // Removes and returns the minimum patient
+    // Removes and returns the minimum patient, or null if the heap is empty
     public Patient extractMin() {
+        dropCancelledRoot();
+        if (size == 0) {
+            return null;
+        }
+        long start = beginOperation();
+        modCount++;
         Patient min = getMin();
-        System.out.println("Extracting: " + min.getName());
+        tombstones.removed(min);
         heap[0] = null;
-        if(size != 1) {
-            heap[0] = heap[size-1];
-            heap[size-1] = null;
+        size--;
+        if(size != 0) {
+            heap[0] = heap[size];
+            heap[size] = null;
             siftDown(0);
         }
-        size--;
+        shrinkIfSparse();
+        if (metrics != null) {
+            metrics.recordExtract(min, System.nanoTime() - start, comparisons - comparisonsAtStart,
+                    swaps - swapsAtStart, size);
+        }
         return min;
     }
 
+    // Marks a queued patient as having left in O(1); returns false if the patient is not queued.
+    // Cancelled patients are skipped when they reach the top and compacted away in bulk.
+    public boolean cancel(long patientId) {
+        if (!tombstones.cancel(patientId)) {
+            return false;
+        }
+        modCount++;
+        if (tombstones.needsCompaction(size)) {
+            compact();
+        }
+        return true;
+    }
+
+    // Fraction of cancelled entries that triggers a compaction (default 0.25)
+    public void setCompactionThreshold(double threshold) {
+        tombstones.setThreshold(threshold);
+    }
+
+    // Drops every cancelled patient in one linear pass and re-heapifies
+    public void compact() {
+        if (tombstones.getDeadEntries() == 0) {
+            return;
+        }
+        modCount++;
+        int live = 0;
+        for (int i = 0; i < size; i++) {
+            Patient patient = heap[i];
+            if (tombstones.isCancelled(patient)) {
+                tombstones.removed(patient);
+            } else {
+                heap[live++] = patient;
+            }
+        }
+        Arrays.fill(heap, live, size, null);
+        size = live;
+        heapify();
+        shrinkIfSparse();
+    }
+
+    // Batch reads see only live patients, so pending tombstones are compacted first
+    private void compactIfCancelled() {
+        if (tombstones.getDeadEntries() > 0) {
+            compact();
+        }
+    }
+
+    // Pops cancelled patients off the root until a live one (or nothing) is left
+    private void dropCancelledRoot() {
+        if (size == 0 || !tombstones.isCancelled(heap[0])) {
+            return;
+        }
+        modCount++;
+        while (size > 0 && tombstones.isCancelled(heap[0])) {
+            tombstones.removed(heap[0]);
+            size--;
+            heap[0] = heap[size];
+            heap[size] = null;
+            if (size != 0) {
+                siftDown(0);
+            }
+        }
+        shrinkIfSparse();
+    }
+
+    // Attaches instrumentation; pass null to detach
+    public void setMetrics(HeapMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public HeapMetrics getMetrics() {
+        return metrics;
+    }
+
+    // Starts timing an operation; does nothing unless metrics are attached
+    private long beginOperation() {
+        if (metrics == null) {
+            return 0;
+        }
+        comparisonsAtStart = comparisons;
+        swapsAtStart = swaps;
+        return System.nanoTime();
+    }
+
+    private int compare(Patient a, Patient b) {
+        comparisons++;
+        return a.compareTo(b);
+    }
+
+    // Patients in priority order without modifying the heap; computed lazily, so a consumer
+    // that stops after k patients pays O(k log k) instead of a full heapsort
+    public Stream<Patient> streamInPriorityOrder() {
+        compactIfCancelled();
+        return StreamSupport.stream(HeapSpliterators.priorityOrdered(heap, size, this::compare, () -> modCount), false);
+    }
+
+    // Every patient in no particular order, straight from the array; splits evenly for parallel streams
+    public Spliterator<Patient> spliterator() {
+        compactIfCancelled();
+        return HeapSpliterators.unordered(heap, 0, size, () -> modCount);
+    }
+
+    public Stream<Patient> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    // Returns the next k patients in priority order without modifying the heap, in O(k log k)
+    public List<Patient> peekTopK(int k) {
+        compactIfCancelled();
+        int[] top = topKIndices(k);
+        List<Patient> result = new ArrayList<>(top.length);
+        for (int index : top) {
+            result.add(heap[index]);
+        }
+        return result;
+    }
+
+    // Removes the next k patients into target in priority order and repairs the heap in one pass
+    public int drainTo(Collection<? super Patient> target, int k) {
+        compactIfCancelled();
+        int[] top = topKIndices(k);
+        int count = top.length;
+        if (count == 0) {
+            return 0;
+        }
+        modCount++;
+        for (int index : top) {
+            target.add(heap[index]);
+            tombstones.removed(heap[index]);
+        }
+        // The taken slots form a subtree hanging from the root. Holes below the new size are
+        // refilled from untaken patients in the tail, then sifted down bottom-up as in heapify.
+        // Taken tail slots are found by binary search in the sorted top, so nothing of size n is allocated.
+        int newSize = size - count;
+        int tail = size - 1;
+        Arrays.sort(top);
+        for (int index : top) {
+            if (index >= newSize) {
+                break;
+            }
+            while (Arrays.binarySearch(top, tail) >= 0) {
+                tail--;
+            }
+            heap[index] = heap[tail--];
+        }
+        Arrays.fill(heap, newSize, size, null);
+        size = newSize;
+        for (int j = top.length - 1; j >= 0; j--) {
+            if (top[j] < size) {
+                siftDown(top[j]);
+            }
+        }
+        shrinkIfSparse();
+        return count;
+    }
+
+    // Indices of the min(k, size) lowest-severity patients in priority order
+    private int[] topKIndices(int k) {
+        return HeapSpliterators.topKIndices(heap, size, k, this::compare);
+    }
+
+    // Inserts every patient in the collection. Only the ancestors of the new slots are
+    // re-heapified, so appending m patients costs O(m + log^2 n) instead of m siftUps
+    public void insertAll(Collection<Patient> patients) {
+        ensureCapacity(size + patients.size());
+        modCount++;
+        int first = size;
+        for (Patient patient : patients) {
+            heap[size++] = patient;
+            tombstones.added(patient);
+        }
+        heapifyFrom(first);
+    }
+
+    // Replaces the contents of the heap with the given patients using bottom-up heapify
+    public void buildFrom(Collection<Patient> patients) {
+        Arrays.fill(heap, 0, size, null);
+        size = 0;
+        tombstones.clear();
+        insertAll(patients);
+    }
+
+    // Like buildFrom, but heapifies independent subtrees on the common fork-join pool
+    public void parallelBuildFrom(Collection<Patient> patients) {
+        parallelBuildFrom(patients, ForkJoinPool.commonPool());
+    }
+
+    public void parallelBuildFrom(Collection<Patient> patients, ForkJoinPool pool) {
+        Arrays.fill(heap, 0, size, null);
+        size = 0;
+        tombstones.clear();
+        ensureCapacity(patients.size());
+        modCount++;
+        for (Patient patient : patients) {
+            heap[size++] = patient;
+            tombstones.added(patient);
+        }
+        ParallelHeaps.heapify(heap, size, Comparator.naturalOrder(), pool);
+    }
+
+    // Every patient, lowest severity first, sorted on all cores; the heap itself is left as it is
+    public List<Patient> exportSorted() {
+        compactIfCancelled();
+        return Arrays.asList(ParallelHeaps.sortedCopy(heap, size, Comparator.naturalOrder()));
+    }
+
+    // Floyd's bottom-up heapify: sift down every internal node, last parent first
+    protected void heapify() {
+        for (int i = parent(size - 1); i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    // Floyd's heapify limited to the ancestors of slots first..size-1. Every node is sifted
+    // after all of its changed descendants, taking one level of ancestors at a time.
+    private void heapifyFrom(int first) {
+        if (first == 0) {
+            heapify();
+            return;
+        }
+        if (first >= size) {
+            return;
+        }
+        int lo = parent(first);
+        int hi = parent(size - 1);
+        while (true) {
+            for (int i = hi; i >= lo; i--) {
+                siftDown(i);
+            }
+            if (lo == 0) {
+                return;
+            }
+            hi = Math.min(parent(hi), lo - 1); // slots from lo up were just sifted
+            lo = parent(lo);
+        }
+    }
+
+    // Doubles the backing array until it can hold required patients
+    protected void ensureCapacity(int required) {
+        if (required <= capacity) {
+            return;
+        }
+        int newCapacity = capacity;
+        while (newCapacity < required) {
+            newCapacity = newCapacity * 2;
+        }
+        resize(newCapacity);
+    }
+
+    // Halves the backing array once it is only a quarter full, never below the initial capacity
+    protected void shrinkIfSparse() {
+        if (capacity > minCapacity && size <= capacity / 4) {
+            resize(Math.max(capacity / 2, minCapacity));
+        }
+    }
+
+    private void resize(int newCapacity) {
+        heap = Arrays.copyOf(heap, newCapacity);
+        capacity = newCapacity;
+    }
+
     // Sifts a patient down from index i to maintain the min-heap property
     private void siftDown(int i) {
         int smallerIndex = 0;
-        if(((leftChild(i) < size)&&(rightChild(i) < size)) && (heap[leftChild(i)] != null && heap[rightChild(i)] != null)) {
-            if (heap[leftChild(i)].compareTo(heap[rightChild(i)]) < 0) { // if left child is smaller than right
+        if(leftChild(i) < size) {
+            if (rightChild(i) >= size || compare(heap[leftChild(i)], heap[rightChild(i)]) < 0) { // if left child is smaller than right (or the only child)
                 smallerIndex = leftChild(i);
             } else {
                 smallerIndex = rightChild(i);
             }
 
-            if (heap[smallerIndex].compareTo(heap[i]) < 0) { // if child is smaller than parent
+            if (compare(heap[smallerIndex], heap[i]) < 0) { // if child is smaller than parent
                 // float parent down
                 Patient current = heap[i];
                 heap[i] = heap[smallerIndex];
                 heap[smallerIndex] = current;
+                swaps++;
                 siftDown(smallerIndex);
             }
         }
@@ -86,11 +406,12 @@ class PatientMinHeapOriginal {
     // Sifts a patient up from index i to maintain the min-heap property
     private void siftUp(int i) {
         int index = i;
-        while(heap[parent(index)].compareTo(heap[index]) > 0){ // check greater
+        while(compare(heap[parent(index)], heap[index]) > 0){ // check greater
             // if parent is greater, float up
             Patient parent = heap[parent(index)];
             heap[parent(index)] = heap[index];
             heap[index] = parent;
+            swaps++;
             index = parent(index);
         }
     }
@@ -0,0 +1,160 @@
+import java.util.Arrays;
+
+/**
+ * Min-max heap: a double-ended priority queue on a single array.
+ * Even levels (starting with the root) are min levels and odd levels are max levels,
+ * so the routine patient is at the root and the emergency patient is one of its
+ * children. One structure serves both lanes, and each patient is stored only once.
+ */
+class PatientMinMaxHeap {
+    protected Patient[] heap;
+    protected int size;
+
+    public PatientMinMaxHeap(int capacity) {
+        this.heap = new Patient[Math.max(capacity, 1)];
+        this.size = 0;
+    }
+
+    // Returns the index of the parent node
+    private int parent(int i) {
+        return (i - 1) / 2;
+    }
+
+    // Returns the index of the left child
+    private int leftChild(int i) {
+        return (2 * i) + 1;
+    }
+
+    // Root is on level 0, a min level
+    private boolean isMinLevel(int i) {
+        return ((31 - Integer.numberOfLeadingZeros(i + 1)) & 1) == 0;
+    }
+
+    // Checks if the heap is empty
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Returns the lowest severity patient without removing it
+    public Patient getMin() {
+        return size == 0 ? null : heap[0];
+    }
+
+    // Returns the highest severity patient without removing it
+    public Patient getMax() {
+        return size == 0 ? null : heap[maxIndex()];
+    }
+
+    // Inserts a new patient into the heap
+    public void insert(Patient patient) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, heap.length * 2);
+        }
+        heap[size] = patient;
+        pushUp(size);
+        size++;
+    }
+
+    // Removes and returns the lowest severity patient, or null if the heap is empty
+    public Patient extractMin() {
+        return size == 0 ? null : removeAt(0);
+    }
+
+    // Removes and returns the highest severity patient, or null if the heap is empty
+    public Patient extractMax() {
+        return size == 0 ? null : removeAt(maxIndex());
+    }
+
+    private int maxIndex() {
+        if (size == 1) {
+            return 0;
+        }
+        if (size == 2 || heap[1].compareTo(heap[2]) >= 0) {
+            return 1;
+        }
+        return 2;
+    }
+
+    private Patient removeAt(int i) {
+        Patient removed = heap[i];
+        size--;
+        heap[i] = heap[size];
+        heap[size] = null;
+        if (i < size) {
+            trickleDown(i, isMinLevel(i) ? 1 : -1);
+        }
+        return removed;
+    }
+
+    // order > 0 means "a before b" is a < b (min level); order < 0 flips it (max level)
+    private boolean before(int a, int b, int order) {
+        return order * heap[a].compareTo(heap[b]) < 0;
+    }
+
+    private void pushUp(int i) {
+        if (i == 0) {
+            return;
+        }
+        int p = parent(i);
+        int order = isMinLevel(i) ? 1 : -1;
+        if (before(p, i, order)) {
+            // Belongs on the opposite kind of level: swap with the parent and continue from there
+            swap(i, p);
+            pushUpGrandparents(p, -order);
+        } else {
+            pushUpGrandparents(i, order);
+        }
+    }
+
+    private void pushUpGrandparents(int i, int order) {
+        while (i > 2) {
+            int grandparent = parent(parent(i));
+            if (!before(i, grandparent, order)) {
+                break;
+            }
+            swap(i, grandparent);
+            i = grandparent;
+        }
+    }
+
+    // Sifts the patient at i down through the levels of its own kind
+    private void trickleDown(int i, int order) {
+        while (leftChild(i) < size) {
+            int m = bestDescendant(i, order);
+            if (!before(m, i, order)) {
+                return;
+            }
+            swap(m, i);
+            if (m <= leftChild(i) + 1) {
+                return; // m was a child, so no grandchild of i can be out of order
+            }
+            if (before(parent(m), m, order)) {
+                swap(m, parent(m));
+            }
+            i = m;
+        }
+    }
+
+    // Best of the children and grandchildren of i
+    private int bestDescendant(int i, int order) {
+        int first = leftChild(i);
+        int best = first;
+        if (first + 1 < size && before(first + 1, best, order)) {
+            best = first + 1;
+        }
+        int firstGrandchild = leftChild(first);
+        int end = Math.min(firstGrandchild + 4, size);
+        for (int g = firstGrandchild; g < end; g++) {
+            if (before(g, best, order)) {
+                best = g;
+            }
+        }
+        return best;
+    }
+
+    private void swap(int a, int b) {
+        Patient temp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = temp;
+    }
+}
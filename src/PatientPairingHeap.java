@@ -0,0 +1,268 @@
+/**
+ * Meldable patient heap (pairing heap) for merging ward queues.
+ * Each patient lives in its own node, linked into a multiway tree as first child /
+ * next sibling. insert, peek and meld just link two roots in O(1); extract pairs up
+ * the root's children left to right and folds the pairs right to left, which is
+ * amortized O(log n). Priorities are packed keys as in PatientKeyedHeap, so equal
+ * severities come out in arrival order.
+ */
+class PatientPairingHeap {
+
+    /**
+     * Node holding one queued patient, returned by insert so the patient can be
+     * re-triaged or removed later. Handles stay valid after their heap is melded
+     * into another one and must then be used with the heap that absorbed it.
+     * getPatient returns the re-triaged copy after updateSeverity.
+     */
+    static final class Handle {
+        private Patient patient;
+        private final long sequence;
+        private long key;
+        private Handle child;   // first child
+        private Handle sibling; // next sibling
+        private Handle prev;    // parent if this is the first child, otherwise previous sibling
+        private Group group;    // leads to the owning heap's group
+        private boolean queued;
+
+        private Handle(Patient patient, long sequence) {
+            this.patient = patient;
+            this.sequence = sequence;
+        }
+
+        public Patient getPatient() {
+            return patient;
+        }
+
+        public boolean isQueued() {
+            return queued;
+        }
+    }
+
+    /**
+     * Membership tag shared by the handles inserted into one heap. meld forwards the
+     * absorbed heap's group to the absorbing one instead of retagging every handle, so
+     * a handle's owner is found by following the chain (with path compression).
+     */
+    private static final class Group {
+        private Group forward;
+
+        private Group owner() {
+            Group owner = this;
+            while (owner.forward != null) {
+                owner = owner.forward;
+            }
+            for (Group g = this; g != owner; ) {
+                Group next = g.forward;
+                g.forward = owner;
+                g = next;
+            }
+            return owner;
+        }
+    }
+
+    private final PatientKeyedHeap.Order order;
+    private Group group = new Group();
+    private Handle root;
+    private int size;
+    private long nextSequence;
+
+    public PatientPairingHeap(PatientKeyedHeap.Order order) {
+        this.order = order;
+    }
+
+    // Lowest severity first, like PatientMinHeapOriginal
+    public static PatientPairingHeap minHeap() {
+        return new PatientPairingHeap(PatientKeyedHeap.Order.MIN);
+    }
+
+    // Highest severity first, like PatientMaxHeapOriginal
+    public static PatientPairingHeap maxHeap() {
+        return new PatientPairingHeap(PatientKeyedHeap.Order.MAX);
+    }
+
+    // Checks if the heap is empty
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public PatientKeyedHeap.Order getOrder() {
+        return order;
+    }
+
+    // Returns the highest priority patient without removing it
+    public Patient peek() {
+        return root == null ? null : root.patient;
+    }
+
+    // Inserts a new patient and returns the handle used to update or remove it later
+    public Handle insert(Patient patient) {
+        Handle handle = new Handle(patient, nextSequence++);
+        handle.key = PatientKeyedHeap.packKey(order, patient.getSeverityScore(), handle.sequence);
+        handle.group = group;
+        handle.queued = true;
+        root = link(root, handle);
+        size++;
+        return handle;
+    }
+
+    // Removes and returns the highest priority patient
+    public Patient extract() {
+        if (root == null) {
+            return null;
+        }
+        Handle top = root;
+        root = mergePairs(top.child);
+        top.child = null;
+        top.queued = false;
+        size--;
+        return top.patient;
+    }
+
+    /**
+     * Moves every patient of other into this heap in O(1), leaving other empty.
+     * Arrival order between the two heaps is kept only as far as their sequence
+     * counters agree; ties across heaps may come out in either order.
+     */
+    public void meld(PatientPairingHeap other) {
+        if (other == this) {
+            throw new IllegalArgumentException("Cannot meld a heap into itself");
+        }
+        if (other.order != order) {
+            throw new IllegalArgumentException("Cannot meld a " + other.order + " heap into a " + order + " heap");
+        }
+        root = link(root, other.root);
+        size += other.size;
+        nextSequence = Math.max(nextSequence, other.nextSequence);
+        other.root = null;
+        other.size = 0;
+        other.group.forward = group;
+        other.group = new Group();
+    }
+
+    /**
+     * Re-triages a queued patient. A patient who becomes more urgent is cut out with
+     * its subtree and linked to the root (the classic decrease-key); one who becomes
+     * less urgent is removed and reinserted, since its children may now outrank it.
+     * The handle switches to a re-triaged copy; the Patient passed to insert is left untouched.
+     */
+    public void updateSeverity(Handle handle, int newScore) {
+        checkQueued(handle);
+        long newKey = PatientKeyedHeap.packKey(order, newScore, handle.sequence);
+        handle.patient = handle.patient.retriaged(newScore);
+        long oldKey = handle.key;
+        handle.key = newKey;
+        if (handle.key < oldKey) {
+            if (handle != root) {
+                cut(handle);
+                root = link(root, handle);
+            }
+        } else if (handle.key > oldKey) {
+            detach(handle);
+            root = link(root, handle);
+        }
+    }
+
+    // Removes a queued patient (e.g. left without being seen)
+    public void remove(Handle handle) {
+        checkQueued(handle);
+        detach(handle);
+        handle.queued = false;
+        size--;
+    }
+
+    private void checkQueued(Handle handle) {
+        if (!handle.queued) {
+            throw new IllegalArgumentException("Patient is not in this queue: " + handle.patient);
+        }
+        handle.group = handle.group.owner();
+        if (handle.group != group) {
+            throw new IllegalArgumentException("Patient is not in this queue: " + handle.patient);
+        }
+    }
+
+    // Takes a node out of the tree, leaving its children behind in its place
+    private void detach(Handle handle) {
+        if (handle == root) {
+            root = mergePairs(handle.child);
+        } else {
+            cut(handle);
+            root = link(root, mergePairs(handle.child));
+        }
+        handle.child = null;
+    }
+
+    // Unlinks a non-root node (with its subtree) from its parent and siblings
+    private void cut(Handle handle) {
+        if (handle.prev.child == handle) {
+            handle.prev.child = handle.sibling;
+        } else {
+            handle.prev.sibling = handle.sibling;
+        }
+        if (handle.sibling != null) {
+            handle.sibling.prev = handle.prev;
+        }
+        handle.prev = null;
+        handle.sibling = null;
+    }
+
+    // Links two roots; the one with the smaller key becomes the parent
+    private static Handle link(Handle a, Handle b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (b.key < a.key) {
+            Handle t = a;
+            a = b;
+            b = t;
+        }
+        b.prev = a;
+        b.sibling = a.child;
+        if (a.child != null) {
+            a.child.prev = b;
+        }
+        a.child = b;
+        return a;
+    }
+
+    // Two-pass pairing of a sibling list; iterative so long child lists cannot overflow the stack
+    private static Handle mergePairs(Handle first) {
+        if (first == null) {
+            return null;
+        }
+        // First pass: link neighbours left to right, stacking the results through sibling
+        Handle pairs = null;
+        Handle a = first;
+        while (a != null) {
+            Handle b = a.sibling;
+            Handle next = b == null ? null : b.sibling;
+            a.prev = null;
+            a.sibling = null;
+            if (b != null) {
+                b.prev = null;
+                b.sibling = null;
+            }
+            Handle merged = link(a, b);
+            merged.sibling = pairs;
+            pairs = merged;
+            a = next;
+        }
+        // Second pass: fold the stack, which visits the pairs right to left
+        Handle result = pairs;
+        pairs = pairs.sibling;
+        result.sibling = null;
+        while (pairs != null) {
+            Handle next = pairs.sibling;
+            pairs.sibling = null;
+            result = link(result, pairs);
+            pairs = next;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,78 @@
+import java.util.Comparator;
+
+/**
+ * Common interface of the single-ended patient priority queues.
+ * Callers that only insert, look at the top and extract (the visualizer, the ER
+ * simulation, dispatchers) code against this instead of a concrete heap, so the
+ * engine behind them can be swapped without touching the caller.
+ */
+interface PriorityEngine {
+    void insert(Patient patient);
+
+    // Returns the highest priority patient without removing it, or null if empty
+    Patient peek();
+
+    // Removes and returns the highest priority patient, or null if empty
+    Patient extract();
+
+    int getSize();
+
+    // Every queued patient in no particular order
+    Patient[] toArray();
+
+    default boolean isEmpty() {
+        return getSize() == 0;
+    }
+
+    // Binary heap in the given order
+    static PriorityEngine binaryHeap(PatientKeyedHeap.Order order, int capacity) {
+        return daryHeap(order, 2, capacity);
+    }
+
+    // d-ary heap in the given order
+    static PriorityEngine daryHeap(PatientKeyedHeap.Order order, int arity, int capacity) {
+        return new PatientDaryHeap(arity, comparator(order), capacity);
+    }
+
+    // Bucket queue in the given order; only accepts severities PatientBucketQueue can hold
+    static PriorityEngine bucketQueue(PatientKeyedHeap.Order order) {
+        PatientBucketQueue queue = new PatientBucketQueue();
+        boolean min = order == PatientKeyedHeap.Order.MIN;
+        return new PriorityEngine() {
+            @Override
+            public void insert(Patient patient) {
+                queue.insert(patient);
+            }
+
+            @Override
+            public Patient peek() {
+                return min ? queue.getMin() : queue.getMax();
+            }
+
+            @Override
+            public Patient extract() {
+                return min ? queue.extractMin() : queue.extractMax();
+            }
+
+            @Override
+            public int getSize() {
+                return queue.getSize();
+            }
+
+            @Override
+            public Patient[] toArray() {
+                return queue.toArray();
+            }
+        };
+    }
+
+    // Engine that picks one of the above from the live workload and migrates between them
+    static PriorityEngine adaptive(PatientKeyedHeap.Order order, int capacity) {
+        return new AdaptivePriorityEngine(order, capacity);
+    }
+
+    // Comparator under which the patient that comes out first sorts first
+    static Comparator<Patient> comparator(PatientKeyedHeap.Order order) {
+        return order == PatientKeyedHeap.Order.MIN ? Comparator.naturalOrder() : Comparator.reverseOrder();
+    }
+}
@@ -0,0 +1,29 @@
+import java.util.Random;
+
+/**
+ * Distribution of how long a clinician spends with a patient, in minutes.
+ */
+interface ServiceTime {
+
+    double sample(int severity, Random random);
+
+    // Every patient takes the same time
+    static ServiceTime constant(double minutes) {
+        return (severity, random) -> minutes;
+    }
+
+    // Memoryless service with the given mean
+    static ServiceTime exponential(double meanMinutes) {
+        return (severity, random) -> -meanMinutes * Math.log(1 - random.nextDouble());
+    }
+
+    // Long-tailed service typical of ER visits; sigma is the spread of the underlying normal
+    static ServiceTime logNormal(double medianMinutes, double sigma) {
+        return (severity, random) -> medianMinutes * Math.exp(sigma * random.nextGaussian());
+    }
+
+    // Sicker patients take longer: the base time is scaled by 1 + perSeverityLevel * (severity - 1)
+    static ServiceTime scaledBySeverity(ServiceTime base, double perSeverityLevel) {
+        return (severity, random) -> base.sample(severity, random) * (1 + perSeverityLevel * (severity - 1));
+    }
+}
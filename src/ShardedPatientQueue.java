@@ -0,0 +1,324 @@
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe patient queue split into independent shards, one per core or intake
+ * desk. Each shard is a plain heap behind its own lock, so inserts on different
+ * shards never touch the same lock and insert throughput grows with the shard count.
+ * Every shard publishes the rank of its head after each change.
+ *
+ * STRICT extraction serializes clinicians on one extraction lock and keeps a small
+ * indexed heap of shard heads: inserts that improve a shard's head flag it dirty, the
+ * extractor re-keys just those shards, and the best head is always at the top, so
+ * patients come out in exact severity order (as of the moment of extraction).
+ * RELAXED extraction takes no global lock: it compares the heads of two random shards
+ * and serves the better one, so concurrent clinicians rarely collide and the patient
+ * served is usually, but not always, the most severe one queued.
+ * Order within a severity level is not guaranteed.
+ */
+class ShardedPatientQueue {
+
+    enum Placement {
+        ROUND_ROBIN, // spreads arrivals evenly over the shards
+        HASH         // by inserting thread: each desk is handed its own shard, round robin, on its first insert
+    }
+
+    enum Mode { STRICT, RELAXED }
+
+    // Ranks are severities widened to long, so no patient's rank can be mistaken for EMPTY
+    private static final long EMPTY = Long.MAX_VALUE;
+
+    private final PatientKeyedHeap.Order order;
+    private final Placement placement;
+    private final Mode mode;
+    private final PatientDaryHeap[] shards;
+    private final ReentrantLock[] locks;
+    private final AtomicLongArray heads;      // published head rank per shard, smaller served first
+    private final AtomicLongArray dirtyWords; // bit s set when shard s's head improved since the extractor looked
+    private final AtomicInteger nextShard = new AtomicInteger();
+    private final AtomicInteger nextHomeShard = new AtomicInteger();
+    private final ThreadLocal<Integer> homeShard; // HASH placement
+    private final LongAdder size = new LongAdder();
+
+    // Heap of shard heads, only touched while holding extractLock (STRICT mode)
+    private final ReentrantLock extractLock = new ReentrantLock();
+    private final int[] headHeap;     // shard ids, best head rank first
+    private final int[] headPosition; // index of each shard in headHeap
+    private final long[] headRank;    // rank each shard is keyed by in headHeap
+
+    public ShardedPatientQueue(PatientKeyedHeap.Order order, int shardCount, Placement placement, Mode mode) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Need at least one shard: " + shardCount);
+        }
+        this.order = order;
+        this.placement = placement;
+        this.mode = mode;
+        this.shards = new PatientDaryHeap[shardCount];
+        this.locks = new ReentrantLock[shardCount];
+        this.heads = new AtomicLongArray(shardCount);
+        this.dirtyWords = new AtomicLongArray((shardCount + 63) / 64);
+        this.headHeap = new int[shardCount];
+        this.headPosition = new int[shardCount];
+        this.headRank = new long[shardCount];
+        this.homeShard = ThreadLocal.withInitial(() -> Math.floorMod(nextHomeShard.getAndIncrement(), shardCount));
+        for (int s = 0; s < shardCount; s++) {
+            shards[s] = order == PatientKeyedHeap.Order.MIN
+                    ? PatientDaryHeap.minHeap(4, 16) : PatientDaryHeap.maxHeap(4, 16);
+            locks[s] = new ReentrantLock();
+            heads.set(s, EMPTY);
+            headHeap[s] = s;
+            headPosition[s] = s;
+            headRank[s] = EMPTY;
+        }
+    }
+
+    // One shard per core
+    public static ShardedPatientQueue forCores(PatientKeyedHeap.Order order, Placement placement, Mode mode) {
+        return new ShardedPatientQueue(order, Runtime.getRuntime().availableProcessors(), placement, mode);
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    // Approximate while other threads are inserting or extracting
+    public boolean isEmpty() {
+        return size.sum() == 0;
+    }
+
+    // Approximate while other threads are inserting or extracting
+    public int getSize() {
+        return size.intValue();
+    }
+
+    public void insert(Patient patient) {
+        int s = chooseShard();
+        ReentrantLock lock = locks[s];
+        long before;
+        long after;
+        lock.lock();
+        try {
+            before = heads.get(s);
+            shards[s].insert(patient);
+            after = publishHead(s);
+        } finally {
+            lock.unlock();
+        }
+        size.increment();
+        if (after < before && mode == Mode.STRICT) {
+            markDirty(s);
+        }
+    }
+
+    // Removes and returns the next patient according to the mode, or null if every shard is empty
+    public Patient poll() {
+        if (mode == Mode.RELAXED) {
+            return pollRelaxed();
+        }
+        extractLock.lock();
+        try {
+            return pollStrict();
+        } finally {
+            extractLock.unlock();
+        }
+    }
+
+    // Removes up to k patients into target, k-way merging the shard heads; returns how many were moved
+    public int drainTo(Collection<? super Patient> target, int k) {
+        int moved = 0;
+        if (mode == Mode.RELAXED) {
+            Patient patient;
+            while (moved < k && (patient = pollRelaxed()) != null) {
+                target.add(patient);
+                moved++;
+            }
+            return moved;
+        }
+        extractLock.lock();
+        try {
+            Patient patient;
+            while (moved < k && (patient = pollStrict()) != null) {
+                target.add(patient);
+                moved++;
+            }
+        } finally {
+            extractLock.unlock();
+        }
+        return moved;
+    }
+
+    private int chooseShard() {
+        int n = shards.length;
+        if (placement == Placement.HASH) {
+            // Handed out in turn rather than hashed from the thread id, so up to n desks
+            // never share a shard
+            return homeShard.get();
+        }
+        return Math.floorMod(nextShard.getAndIncrement(), n);
+    }
+
+    // Caller holds extractLock
+    private Patient pollStrict() {
+        refreshDirtyHeads();
+        while (true) {
+            int s = headHeap[0];
+            if (headRank[s] == EMPTY) {
+                return null;
+            }
+            Patient patient;
+            long rank;
+            locks[s].lock();
+            try {
+                patient = shards[s].extract();
+                rank = publishHead(s);
+            } finally {
+                locks[s].unlock();
+            }
+            rekey(s, rank);
+            if (patient != null) {
+                size.decrement();
+                return patient;
+            }
+        }
+    }
+
+    private Patient pollRelaxed() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int n = shards.length;
+        for (int attempt = 0; attempt < 2 * n; attempt++) {
+            int a = random.nextInt(n);
+            int b = random.nextInt(n);
+            int s = heads.get(b) < heads.get(a) ? b : a;
+            if (heads.get(s) == EMPTY) {
+                continue;
+            }
+            Patient patient = extractFrom(s, attempt < n);
+            if (patient != null) {
+                return patient;
+            }
+        }
+        // Random probes kept missing; sweep every shard so a non-empty queue never reports empty
+        for (int s = 0; s < n; s++) {
+            if (heads.get(s) != EMPTY) {
+                Patient patient = extractFrom(s, false);
+                if (patient != null) {
+                    return patient;
+                }
+            }
+        }
+        return null;
+    }
+
+    // Extracts from shard s; with tryOnly, gives up instead of waiting for a busy shard
+    private Patient extractFrom(int s, boolean tryOnly) {
+        ReentrantLock lock = locks[s];
+        if (tryOnly) {
+            if (!lock.tryLock()) {
+                return null;
+            }
+        } else {
+            lock.lock();
+        }
+        Patient patient;
+        try {
+            patient = shards[s].extract();
+            publishHead(s);
+        } finally {
+            lock.unlock();
+        }
+        if (patient != null) {
+            size.decrement();
+        }
+        return patient;
+    }
+
+    // Caller holds locks[s]; returns the published rank
+    private long publishHead(int s) {
+        Patient head = shards[s].peek();
+        long rank = EMPTY;
+        if (head != null) {
+            rank = order == PatientKeyedHeap.Order.MIN ? head.getSeverityScore() : -(long) head.getSeverityScore();
+        }
+        heads.set(s, rank);
+        return rank;
+    }
+
+    private void markDirty(int s) {
+        int word = s >>> 6;
+        long bit = 1L << s;
+        long current;
+        do {
+            current = dirtyWords.get(word);
+        } while ((current & bit) == 0 && !dirtyWords.compareAndSet(word, current, current | bit));
+    }
+
+    // Caller holds extractLock; re-keys every shard whose head improved since the last look
+    private void refreshDirtyHeads() {
+        for (int word = 0; word < dirtyWords.length(); word++) {
+            if (dirtyWords.get(word) == 0) {
+                continue;
+            }
+            long bits = dirtyWords.getAndSet(word, 0);
+            while (bits != 0) {
+                int s = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                rekey(s, heads.get(s));
+            }
+        }
+    }
+
+    // Caller holds extractLock; moves shard s to its place in the head heap
+    private void rekey(int s, long rank) {
+        long old = headRank[s];
+        headRank[s] = rank;
+        if (rank < old) {
+            siftHeadUp(headPosition[s]);
+        } else if (rank > old) {
+            siftHeadDown(headPosition[s]);
+        }
+    }
+
+    private void siftHeadUp(int i) {
+        int s = headHeap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            int p = headHeap[parent];
+            if (headRank[p] <= headRank[s]) {
+                break;
+            }
+            headHeap[i] = p;
+            headPosition[p] = i;
+            i = parent;
+        }
+        headHeap[i] = s;
+        headPosition[s] = i;
+    }
+
+    private void siftHeadDown(int i) {
+        int n = headHeap.length;
+        int s = headHeap[i];
+        while (2 * i + 1 < n) {
+            int child = 2 * i + 1;
+            if (child + 1 < n && headRank[headHeap[child + 1]] < headRank[headHeap[child]]) {
+                child++;
+            }
+            int c = headHeap[child];
+            if (headRank[s] <= headRank[c]) {
+                break;
+            }
+            headHeap[i] = c;
+            headPosition[c] = i;
+            i = child;
+        }
+        headHeap[i] = s;
+        headPosition[s] = i;
+    }
+}
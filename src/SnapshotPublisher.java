@@ -0,0 +1,105 @@
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Versioned, consistent snapshots of a heap for observers on other threads.
+ * Writers (which the heap already requires to be serialized) run every change
+ * through write, or bracket it with beginWrite/endWrite. That costs two volatile
+ * writes of a sequence number and a store-store fence (a seqlock) and never waits
+ * for readers. A reader copies the live array and keeps the copy only if the
+ * sequence was even and unchanged around it, so it can never observe a
+ * half-finished sift. Each version is copied at most once and then shared
+ * by every reader until the next write; if writes keep racing the copy, the reader
+ * gets the newest published snapshot instead of spinning, so polling never stalls.
+ */
+class SnapshotPublisher {
+
+    // Read access to the heap being published; may be called while a write is in progress
+    interface Source {
+        Patient[] array();
+
+        int size();
+    }
+
+    private static final int COPY_ATTEMPTS = 4;
+
+    private final Source source;
+    private volatile long sequence; // odd while a write is in progress
+    private int writeDepth;         // writer-only; lets mutators that call each other nest
+    private final AtomicReference<HeapSnapshot> latest = new AtomicReference<>(new HeapSnapshot(-1, new Patient[0]));
+
+    public SnapshotPublisher(Source source) {
+        this.source = source;
+    }
+
+    public void beginWrite() {
+        if (writeDepth++ == 0) {
+            sequence++;
+            // A volatile write only orders the stores before it; without this fence the
+            // writer's array stores could become visible ahead of the odd sequence
+            VarHandle.storeStoreFence();
+        }
+    }
+
+    public void endWrite() {
+        if (--writeDepth == 0) {
+            sequence++;
+        }
+    }
+
+    // Runs one change to the heap between beginWrite and endWrite
+    public <T> T write(Supplier<T> change) {
+        beginWrite();
+        try {
+            return change.get();
+        } finally {
+            endWrite();
+        }
+    }
+
+    public void write(Runnable change) {
+        beginWrite();
+        try {
+            change.run();
+        } finally {
+            endWrite();
+        }
+    }
+
+    // Current contents as of some completed write; never blocks and never blocks writers
+    public HeapSnapshot snapshot() {
+        for (int attempt = 0; attempt < COPY_ATTEMPTS; attempt++) {
+            HeapSnapshot published = latest.get();
+            long before = sequence;
+            if ((before & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            long version = before >>> 1;
+            if (published.getVersion() == version) {
+                return published;
+            }
+            Patient[] array = source.array();
+            Patient[] copy = Arrays.copyOf(array, Math.min(source.size(), array.length));
+            VarHandle.acquireFence(); // keep the copy's reads before the re-check
+            if (sequence == before) {
+                return publish(new HeapSnapshot(version, copy));
+            }
+        }
+        return latest.get();
+    }
+
+    // Keeps whichever of the competing snapshots is newest
+    private HeapSnapshot publish(HeapSnapshot snapshot) {
+        HeapSnapshot current = latest.get();
+        while (current.getVersion() < snapshot.getVersion()) {
+            if (latest.compareAndSet(current, snapshot)) {
+                return snapshot;
+            }
+            current = latest.get();
+        }
+        return snapshot;
+    }
+}
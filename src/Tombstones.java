@@ -0,0 +1,97 @@
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Lazy-cancellation bookkeeping for the array heaps.
+ * Cancelling a patient only counts its queued entries as dead; the heap drops dead
+ * entries when they surface at the root, or all at once in a linear compaction once
+ * they make up more than the threshold fraction of the array. A re-admitted patient
+ * is the same Patient as its cancelled entry, so dead entries are counted per id
+ * rather than marked per slot, and whichever entry of the id surfaces first is the
+ * one dropped. Entries are counted per id on every insert (one map update) so that
+ * cancel itself is O(1). Compaction is not moved to a background thread, since the
+ * heaps are not thread-safe: the cancel that crosses the threshold pays the O(n)
+ * pass, which is amortized O(1) over the cancels that led up to it.
+ */
+class Tombstones {
+    private final Map<Long, Integer> queued = new HashMap<>(); // entries per patient id
+    private final Map<Long, Integer> dead = new HashMap<>();   // cancelled entries per patient id
+    private int deadEntries;
+    private double threshold = 0.25;
+
+    // Fraction of cancelled entries in the array that triggers a compaction
+    public void setThreshold(double threshold) {
+        if (!(threshold > 0 && threshold <= 1)) {
+            throw new IllegalArgumentException("Compaction threshold must be in (0, 1]: " + threshold);
+        }
+        this.threshold = threshold;
+    }
+
+    public double getThreshold() {
+        return threshold;
+    }
+
+    // Entries still in the array whose patient has been cancelled
+    public int getDeadEntries() {
+        return deadEntries;
+    }
+
+    // True if the next entry of this patient to leave the heap is a dead one
+    public boolean isCancelled(Patient patient) {
+        return deadEntries != 0 && dead.containsKey(patient.getId());
+    }
+
+    public boolean needsCompaction(int size) {
+        return deadEntries > threshold * size;
+    }
+
+    // Call for every patient entering the heap
+    public void added(Patient patient) {
+        queued.merge(patient.getId(), 1, Integer::sum);
+    }
+
+    // Call for every entry leaving the heap; returns true if it was counted as dead
+    public boolean removed(Patient patient) {
+        long id = patient.getId();
+        decrement(queued, id);
+        if (deadEntries == 0 || !decrement(dead, id)) {
+            return false;
+        }
+        deadEntries--;
+        return true;
+    }
+
+    // Tombstones every queued entry of the patient in O(1); false if none is queued or
+    // all of them were already cancelled
+    public boolean cancel(long patientId) {
+        Integer entries = queued.get(patientId);
+        int cancelled = dead.getOrDefault(patientId, 0);
+        if (entries == null || entries == cancelled) {
+            return false;
+        }
+        dead.put(patientId, entries);
+        deadEntries += entries - cancelled;
+        return true;
+    }
+
+    // Forgets everything, for when the heap is emptied wholesale
+    public void clear() {
+        queued.clear();
+        dead.clear();
+        deadEntries = 0;
+    }
+
+    // Drops one from the count for id; false if id had no count
+    private static boolean decrement(Map<Long, Integer> counts, long id) {
+        Integer count = counts.get(id);
+        if (count == null) {
+            return false;
+        }
+        if (count == 1) {
+            counts.remove(id);
+        } else {
+            counts.put(id, count - 1);
+        }
+        return true;
+    }
+}
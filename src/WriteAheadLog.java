@@ -0,0 +1,320 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary log written through a FileChannel.
+ * The file starts with a magic number and an epoch; every record is framed as
+ * [int length][int crc32][payload], so a torn write at the tail is detected and
+ * cut off on recovery. How appends reach the disk depends on the Durability:
+ * SYNC forces after every record, GROUP lets a background committer force many
+ * records with one fsync while callers wait for it, and ASYNC forces in the
+ * background without making callers wait.
+ */
+class WriteAheadLog implements Closeable {
+
+    enum Durability { SYNC, GROUP, ASYNC }
+
+    private static final int MAGIC = 0x48574131; // "HWA1"
+    private static final int HEADER_BYTES = 12;
+    private static final int FRAME_BYTES = 8;
+
+    private final FileChannel channel;
+    private final Durability durability;
+    private final long commitIntervalNanos;
+    private final ReentrantLock lock = new ReentrantLock();        // guards pending and the counters
+    private final ReentrantLock flushLock = new ReentrantLock();   // one writer of the channel at a time
+    private final Condition committed = lock.newCondition();
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer pending = ByteBuffer.allocateDirect(64 * 1024);
+    private ByteBuffer writing = ByteBuffer.allocateDirect(64 * 1024); // only touched under flushLock
+    private long epoch;
+    private long appended;  // records handed to append()
+    private long durable;   // records known to be on disk
+    private IOException failure;
+    private volatile boolean closed;
+    private final Thread committer;
+
+    private WriteAheadLog(FileChannel channel, Durability durability, long commitIntervalNanos, long epoch) {
+        this.channel = channel;
+        this.durability = durability;
+        this.commitIntervalNanos = commitIntervalNanos;
+        this.epoch = epoch;
+        if (durability == Durability.SYNC) {
+            this.committer = null;
+        } else {
+            this.committer = new Thread(this::commitLoop, "wal-committer");
+            committer.setDaemon(true);
+            committer.start();
+        }
+    }
+
+    // Opens or creates the log, passing every intact record payload to replay before returning.
+    // A log from an epoch before minimumEpoch is stale (a snapshot already covers it) and is
+    // discarded instead of replayed. A log from a later epoch was written on top of a snapshot
+    // that has since been lost, so replaying it onto this one would corrupt the queue.
+    static WriteAheadLog open(Path file, Durability durability, long commitInterval, TimeUnit unit,
+                              long minimumEpoch, Consumer<ByteBuffer> replay) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            return open(file, channel, durability, unit.toNanos(commitInterval), minimumEpoch, replay);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static WriteAheadLog open(Path file, FileChannel channel, Durability durability, long commitIntervalNanos,
+                                      long minimumEpoch, Consumer<ByteBuffer> replay) throws IOException {
+        long epoch = minimumEpoch;
+        if (channel.size() < HEADER_BYTES) {
+            channel.truncate(0);
+            writeHeader(channel, epoch);
+        } else {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            readFully(channel, header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a write-ahead log: " + file);
+            }
+            epoch = header.getLong();
+            if (epoch > minimumEpoch) {
+                throw new IOException("Log " + file + " is from epoch " + epoch + " but the snapshot is from epoch "
+                        + minimumEpoch);
+            }
+            if (epoch < minimumEpoch) {
+                channel.truncate(0);
+                writeHeader(channel, minimumEpoch);
+                epoch = minimumEpoch;
+            }
+            long end = replayRecords(channel, replay);
+            if (end < channel.size()) {
+                channel.truncate(end); // drop a torn tail left by a crash
+                channel.force(false);
+            }
+        }
+        channel.position(channel.size());
+        return new WriteAheadLog(channel, durability, commitIntervalNanos, epoch);
+    }
+
+    long getEpoch() {
+        return epoch;
+    }
+
+    // Appends one record and returns its sequence number; with SYNC it is durable on return
+    long append(ByteBuffer payload) throws IOException {
+        long sequence;
+        lock.lock();
+        try {
+            checkOpen();
+            int length = payload.remaining();
+            crc.reset();
+            crc.update(payload.duplicate());
+            if (pending.remaining() < FRAME_BYTES + length) {
+                grow(FRAME_BYTES + length);
+            }
+            pending.putInt(length).putInt((int) crc.getValue()).put(payload);
+            sequence = ++appended;
+        } finally {
+            lock.unlock();
+        }
+        if (durability == Durability.SYNC) {
+            // Concurrent SYNC callers that arrive during this fsync are covered by the next one
+            flush();
+        }
+        return sequence;
+    }
+
+    // Blocks until the given record has been forced to disk; only GROUP needs to call this
+    void awaitDurable(long sequence) throws IOException {
+        lock.lock();
+        try {
+            while (durable < sequence) {
+                checkOpen();
+                committed.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Forces everything appended so far
+    void sync() throws IOException {
+        flush();
+    }
+
+    // Discards every record and starts a new epoch; the caller must have a snapshot that
+    // covers them and must not append concurrently
+    void reset(long newEpoch) throws IOException {
+        flushLock.lock();
+        try {
+            flush();
+            channel.truncate(0);
+            writeHeader(channel, newEpoch);
+            channel.position(HEADER_BYTES);
+            epoch = newEpoch;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            lock.lock();
+            try {
+                closed = true;
+                committed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (committer != null) {
+                committer.interrupt();
+            }
+            channel.close();
+        }
+    }
+
+    private void commitLoop() {
+        while (!closed) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(commitIntervalNanos);
+                flush();
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException e) {
+                lock.lock();
+                try {
+                    failure = e;
+                    committed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+        }
+    }
+
+    // Writes and forces the pending batch; appends keep filling the other buffer meanwhile
+    private void flush() throws IOException {
+        flushLock.lock();
+        try {
+            ByteBuffer batch;
+            long sequence;
+            lock.lock();
+            try {
+                checkOpen();
+                if (pending.position() == 0) {
+                    return;
+                }
+                batch = pending;
+                pending = writing;
+                sequence = appended;
+            } finally {
+                lock.unlock();
+            }
+            writing = batch;
+            batch.flip();
+            while (batch.hasRemaining()) {
+                channel.write(batch);
+            }
+            batch.clear();
+            channel.force(false);
+            lock.lock();
+            try {
+                durable = sequence;
+                committed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void checkOpen() throws IOException {
+        if (failure != null) {
+            throw new IOException("Write-ahead log failed", failure);
+        }
+        if (closed) {
+            throw new IOException("Write-ahead log is closed");
+        }
+    }
+
+    private void grow(int needed) {
+        int capacity = pending.capacity();
+        while (capacity - pending.position() < needed) {
+            capacity *= 2;
+        }
+        ByteBuffer bigger = ByteBuffer.allocateDirect(capacity);
+        pending.flip();
+        bigger.put(pending);
+        pending = bigger;
+    }
+
+    // Returns the file offset just past the last intact record
+    private static long replayRecords(FileChannel channel, Consumer<ByteBuffer> replay) throws IOException {
+        long position = HEADER_BYTES;
+        long size = channel.size();
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_BYTES);
+        ByteBuffer payload = ByteBuffer.allocate(256);
+        CRC32 check = new CRC32();
+        while (position + FRAME_BYTES <= size) {
+            frame.clear();
+            readFully(channel, frame, position);
+            frame.flip();
+            int length = frame.getInt();
+            int expected = frame.getInt();
+            if (length < 0 || position + FRAME_BYTES + length > size) {
+                break;
+            }
+            if (payload.capacity() < length) {
+                payload = ByteBuffer.allocate(Math.max(length, payload.capacity() * 2));
+            }
+            payload.clear().limit(length);
+            readFully(channel, payload, position + FRAME_BYTES);
+            payload.flip();
+            check.reset();
+            check.update(payload.duplicate());
+            if ((int) check.getValue() != expected) {
+                break;
+            }
+            replay.accept(payload);
+            position += FRAME_BYTES + length;
+        }
+        return position;
+    }
+
+    private static void writeHeader(FileChannel channel, long epoch) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putLong(epoch);
+        header.flip();
+        while (header.hasRemaining()) {
+            channel.write(header, HEADER_BYTES - header.remaining());
+        }
+        channel.force(true);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of log");
+            }
+            position += read;
+        }
+    }
+}
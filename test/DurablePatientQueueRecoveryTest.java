@@ -0,0 +1,157 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Recovery of DurablePatientQueue from the file states a crash can leave behind,
+ * simulated by copying the snapshot or log from an earlier point back into place.
+ */
+class DurablePatientQueueRecoveryTest {
+    private static final String LOG_FILE = "queue.wal";
+    private static final String SNAPSHOT_FILE = "queue.snapshot";
+
+    @TempDir
+    Path directory;
+
+    @TempDir
+    Path saved;
+
+    @Test
+    void reopensAfterCleanClose() throws IOException {
+        try (DurablePatientQueue queue = open(directory)) {
+            queue.insert(new Patient("a", 3, 0));
+            long b = queue.insert(new Patient("b", 7, 0));
+            queue.snapshot();
+            queue.insert(new Patient("c", 5, 0));
+            queue.updateSeverity(b, 1);
+            queue.extract();
+        }
+        assertEquals(List.of("a", "b"), drain(directory));
+    }
+
+    @Test
+    void skipsLogOlderThanSnapshot() throws IOException {
+        // Crash after the new snapshot was renamed into place but before the log was restarted
+        try (DurablePatientQueue queue = open(directory)) {
+            queue.insert(new Patient("a", 3, 0));
+            queue.insert(new Patient("b", 7, 0));
+            save(LOG_FILE);
+            queue.snapshot();
+        }
+        restore(LOG_FILE);
+        assertEquals(List.of("b", "a"), drain(directory));
+    }
+
+    @Test
+    void rejectsLogNewerThanSnapshot() throws IOException {
+        // Crash before the snapshot rename reached the disk, after the log was restarted
+        try (DurablePatientQueue queue = open(directory)) {
+            queue.insert(new Patient("a", 3, 0));
+            queue.snapshot();
+            save(SNAPSHOT_FILE);
+            long b = queue.insert(new Patient("b", 7, 0));
+            queue.snapshot();
+            queue.remove(b);
+        }
+        restore(SNAPSHOT_FILE);
+        assertThrows(IOException.class, () -> open(directory));
+    }
+
+    @Test
+    void dropsTornRecordAtTail() throws IOException {
+        try (DurablePatientQueue queue = open(directory)) {
+            queue.insert(new Patient("a", 3, 0));
+            queue.insert(new Patient("b", 7, 0));
+        }
+        Path log = directory.resolve(LOG_FILE);
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+        // The torn bytes are cut off, so new records append cleanly after the intact ones
+        try (DurablePatientQueue queue = open(directory)) {
+            assertEquals(1, queue.getSize());
+            assertEquals("a", queue.peek().getName());
+            queue.insert(new Patient("c", 9, 0));
+        }
+        assertEquals(List.of("c", "a"), drain(directory));
+    }
+
+    @Test
+    void rejectsRemoveOfPatientMissingFromSnapshot() throws IOException {
+        try (DurablePatientQueue queue = open(directory)) {
+            queue.snapshot(); // epoch 1 snapshot of the empty queue
+        }
+        // Same epoch, but the log removes a patient its base state never had
+        writeLogWithoutInsert();
+        assertThrows(IOException.class, () -> open(directory));
+    }
+
+    @Test
+    void rejectsExtractFromEmptyBaseState() throws IOException {
+        try (DurablePatientQueue queue = open(directory)) {
+            queue.snapshot(); // epoch 1, empty
+            save(SNAPSHOT_FILE);
+            queue.insert(new Patient("a", 3, 0));
+            queue.snapshot(); // epoch 2 snapshot holds a
+        }
+        try (DurablePatientQueue queue = open(directory)) {
+            queue.extract(); // epoch 2 log: EXTRACT
+        }
+        // Re-label the empty snapshot as epoch 2 so only the replay check can catch the mismatch
+        restore(SNAPSHOT_FILE);
+        setSnapshotEpoch(2);
+        assertThrows(IOException.class, () -> open(directory));
+    }
+
+    // Leaves an empty epoch-1 snapshot next to an epoch-1 log that only removes patient 0
+    private void writeLogWithoutInsert() throws IOException {
+        Path other = saved.resolve("other");
+        try (DurablePatientQueue queue = open(other)) {
+            long a = queue.insert(new Patient("a", 3, 0));
+            queue.snapshot(); // epoch 1 snapshot holds a
+            queue.remove(a);  // epoch 1 log: REMOVE 0
+        }
+        Files.copy(other.resolve(LOG_FILE), directory.resolve(LOG_FILE), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void setSnapshotEpoch(long epoch) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory.resolve(SNAPSHOT_FILE), StandardOpenOption.WRITE)) {
+            java.nio.ByteBuffer buffer = java.nio.ByteBuffer.allocate(8).putLong(epoch);
+            buffer.flip();
+            channel.write(buffer, 4);
+        }
+    }
+
+    private void save(String file) throws IOException {
+        Files.copy(directory.resolve(file), saved.resolve(file), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void restore(String file) throws IOException {
+        Files.copy(saved.resolve(file), directory.resolve(file), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static DurablePatientQueue open(Path directory) throws IOException {
+        return DurablePatientQueue.open(directory, PatientKeyedHeap.Order.MAX, WriteAheadLog.Durability.SYNC, 1000);
+    }
+
+    private static List<String> drain(Path directory) throws IOException {
+        List<String> names = new ArrayList<>();
+        try (DurablePatientQueue queue = open(directory)) {
+            Patient patient;
+            while ((patient = queue.extract()) != null) {
+                names.add(patient.getName());
+            }
+        }
+        return names;
+    }
+}